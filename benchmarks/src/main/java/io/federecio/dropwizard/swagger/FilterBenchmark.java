@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.core.filter.AbstractSpecFilter;
+import io.swagger.core.filter.SpecFilter;
+import io.swagger.model.ApiDescription;
+import io.swagger.models.Operation;
+import io.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a {@link SpecFilter} hiding a fifth of the operations, as done on every request when a filter is installed
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    private static final AbstractSpecFilter FILTER = new AbstractSpecFilter() {
+        @Override
+        public boolean isOperationAllowed(Operation operation, ApiDescription api, Map<String, List<String>> params,
+                                          Map<String, String> cookies, Map<String, List<String>> headers) {
+            return !api.getPath().contains("/operation0/");
+        }
+    };
+
+    @Benchmark
+    public Swagger filter(SyntheticSwagger synthetic) {
+        return new SpecFilter().filter(synthetic.swagger, FILTER, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+}
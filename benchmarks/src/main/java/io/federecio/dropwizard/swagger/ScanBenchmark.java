@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.Configuration;
+import io.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the swagger of a configuration, with and without api listing filters:
+ * <ul>
+ * <li>{@code scan}: classpath scan, Reader pass, api listing filters and projection, as done at startup</li>
+ * <li>{@code project}: api listing filters and projection of an already scanned package, as done for every
+ * additional configuration of the same package</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private SwaggerBundleConfiguration configuration;
+    private ConfigurationHelper helper;
+    private SwaggerBundle<Configuration> scannedBundle;
+
+    @Setup
+    public void setUp(SyntheticSwagger synthetic) throws Exception {
+        configuration = synthetic.configuration(filtered);
+        helper = SyntheticSwagger.helper(configuration);
+        scannedBundle = SyntheticSwagger.newBundle();
+        synthetic.resources.withClassLoader(() -> scannedBundle.scanSwagger(configuration, helper));
+    }
+
+    @Benchmark
+    public Swagger scan(SyntheticSwagger synthetic) throws Exception {
+        return synthetic.resources.withClassLoader(() -> SyntheticSwagger.newBundle().scanSwagger(configuration, helper));
+    }
+
+    @Benchmark
+    public Swagger project() {
+        return scannedBundle.scanSwagger(configuration, helper);
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.io.ByteStreams;
+import io.swagger.jaxrs.listing.SwaggerSerializers;
+import io.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produces the swagger document of a request in the different ways the bundle can:
+ * <ul>
+ * <li>{@code swaggerSerializers}: writing the swagger entity with {@link SwaggerSerializers}, as done without the cache</li>
+ * <li>{@code serialize}: serializing into a new {@link SwaggerSpecCache}, the cost of a cache miss</li>
+ * <li>{@code cached} and {@code cachedGzip}: the cache hit of the identity and gzip documents</li>
+ * <li>{@code gzip}: precompressing a serialized document</li>
+ * <li>{@code stream}: streaming the swagger through a Jackson generator, as done for filtered swaggers</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final String SWAGGER_NAME = "swagger";
+
+    @Param({"json", "yaml"})
+    public String type;
+
+    private final SwaggerSpecCache cache = new SwaggerSpecCache();
+    private final GzipSpecEncoder gzip = new GzipSpecEncoder();
+    private MediaType mediaType;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp(SyntheticSwagger synthetic) {
+        mediaType = "yaml".equals(type) ? new MediaType("application", "yaml") : MediaType.APPLICATION_JSON_TYPE;
+        SerializedSpec spec = cache.get(SWAGGER_NAME, type, synthetic.swagger);
+        spec.encodedWith(gzip);
+        serialized = spec.getBody();
+    }
+
+    @Benchmark
+    public void swaggerSerializers(SyntheticSwagger synthetic) throws IOException {
+        new SwaggerSerializers().writeTo(synthetic.swagger, Swagger.class, Swagger.class, null, mediaType,
+                new MultivaluedHashMap<>(), ByteStreams.nullOutputStream());
+    }
+
+    @Benchmark
+    public SerializedSpec serialize(SyntheticSwagger synthetic) {
+        return new SwaggerSpecCache().get(SWAGGER_NAME, type, synthetic.swagger);
+    }
+
+    @Benchmark
+    public SerializedSpec cached(SyntheticSwagger synthetic) {
+        return cache.get(SWAGGER_NAME, type, synthetic.swagger);
+    }
+
+    @Benchmark
+    public SerializedSpec cachedGzip(SyntheticSwagger synthetic) {
+        return cache.get(SWAGGER_NAME, type, synthetic.swagger).encodedWith(gzip);
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        return gzip.encode(serialized);
+    }
+
+    @Benchmark
+    public void stream(SyntheticSwagger synthetic) throws IOException {
+        cache.stream(SWAGGER_NAME, type, synthetic.swagger).write(ByteStreams.nullOutputStream());
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.Configuration;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.validation.Validators;
+import io.dropwizard.setup.Environment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the bundle the way Dropwizard does at startup, on a fresh environment each time, for a number of
+ * configurations documenting the same generated resources (every other one with api listing filters).
+ * <p/>
+ * JMH reports the distribution of the startup time. The distribution of each phase of the
+ * {@link SwaggerStartupProfile}, summed over the configurations of a startup, is printed at the end of each trial
+ * for the measured startups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"1", "4"})
+    public int configurations;
+
+    @Param({"10", "100", "500"})
+    public int resources;
+
+    private SyntheticResources synthetic;
+    private List<SwaggerBundleConfiguration> swaggerConfigurations;
+    private Environment environment;
+    private SwaggerBundle<Configuration> bundle;
+    private boolean measuring;
+    private final List<Map<SwaggerStartupProfile.Phase, Long>> profiles = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        synthetic = SyntheticResources.generate(resources * SyntheticResources.ENDPOINTS_PER_RESOURCE);
+        swaggerConfigurations = new ArrayList<>();
+        for (int i = 0; i < configurations; i++) {
+            SwaggerBundleConfiguration configuration = new SwaggerBundleConfiguration();
+            configuration.setResourcePackage(synthetic.getResourcePackage());
+            configuration.setUriPrefix("/api" + i);
+            if (i % 2 == 1) configuration.setApiListingFilters(new HashSet<>(Collections.singleton(SyntheticResources.FILTER)));
+            swaggerConfigurations.add(configuration);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void iteration(IterationParams iteration) {
+        measuring = iteration.getType() == IterationType.MEASUREMENT;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        environment = new Environment("startup-benchmark", Jackson.newObjectMapper(), Validators.newValidator(),
+                new MetricRegistry(), StartupBenchmark.class.getClassLoader());
+        bundle = new SwaggerBundle<Configuration>() {
+            @Override
+            protected List<SwaggerBundleConfiguration> getSwaggerBundleConfigurations(Configuration configuration) {
+                return swaggerConfigurations;
+            }
+
+            @Override
+            protected Authenticator getAuthenticator(Configuration configuration) {
+                return new Authenticator() {
+                    @Override
+                    public String login(String username, String password) {
+                        return null;
+                    }
+                };
+            }
+        };
+    }
+
+    @Benchmark
+    public SwaggerBundle<Configuration> startup() throws Exception {
+        return synthetic.withClassLoader(() -> {
+            bundle.run(new Configuration(), environment);
+            return bundle;
+        });
+    }
+
+    @TearDown(Level.Invocation)
+    public void collect() {
+        if (!measuring) return;
+        Map<SwaggerStartupProfile.Phase, Long> startup = new EnumMap<>(SwaggerStartupProfile.Phase.class);
+        for (SwaggerStartupProfile.ConfigurationProfile profile : bundle.getStartupProfile().getProfiles()) {
+            for (SwaggerStartupProfile.Phase phase : SwaggerStartupProfile.Phase.values()) {
+                startup.merge(phase, profile.getNanos(phase), Long::sum);
+            }
+        }
+        profiles.add(startup);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println();
+        System.out.println("Phases per startup, in ms (p50 / p90 / max):");
+        for (SwaggerStartupProfile.Phase phase : SwaggerStartupProfile.Phase.values()) {
+            List<Long> nanos = new ArrayList<>();
+            for (Map<SwaggerStartupProfile.Phase, Long> startup : profiles) {
+                nanos.add(startup.get(phase));
+            }
+            Collections.sort(nanos);
+            System.out.println(String.format(Locale.ROOT, "  %-12s %9.2f / %9.2f / %9.2f", phase,
+                    percentile(nanos, 0.5), percentile(nanos, 0.9), percentile(nanos, 1.0)));
+        }
+        profiles.clear();
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
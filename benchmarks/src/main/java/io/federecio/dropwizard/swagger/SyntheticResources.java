@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.annotations.Api;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.CtMethod;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.ParameterAnnotationsAttribute;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.ArrayMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+
+/**
+ * Generates a package of JAX-RS resources with the given number of endpoints, written as class files into a
+ * temporary directory so that they can be found by the classpath scan.
+ * <p/>
+ * Every resource has {@link #ENDPOINTS_PER_RESOURCE} endpoints returning a model that references the model of the
+ * previous resource, in chains of {@link #MODELS_PER_CHAIN} models. Every odd resource is listed under {@link #FILTER}, as well as every fifth endpoint of the
+ * even resources. Method names are unique across resources, like the operation ids of a real application: the Reader
+ * deduplicates colliding ids by looking through all the operations read so far, which would dominate the scan.
+ */
+class SyntheticResources {
+
+    static final int ENDPOINTS_PER_RESOURCE = 10;
+    static final int MODELS_PER_CHAIN = 10;
+    static final String FILTER = "internal";
+
+    private final String resourcePackage;
+    private final ClassLoader classLoader;
+
+    private SyntheticResources(String resourcePackage, ClassLoader classLoader) {
+        this.resourcePackage = resourcePackage;
+        this.classLoader = classLoader;
+    }
+
+    static SyntheticResources generate(int endpoints) throws Exception {
+        String resourcePackage = "bench.endpoints" + endpoints;
+        File directory = Files.createTempDirectory("swagger-benchmarks").toFile();
+        ClassPool pool = new ClassPool(true);
+
+        for (int resource = 0; resource < endpoints / ENDPOINTS_PER_RESOURCE; resource++) {
+            CtClass model = pool.makeClass(resourcePackage + ".Model" + resource);
+            model.addField(CtField.make("public String name;", model));
+            model.addField(CtField.make("public long id;", model));
+            model.addField(CtField.make("public int count;", model));
+            model.addField(CtField.make("public boolean enabled;", model));
+            if (resource % MODELS_PER_CHAIN > 0) model.addField(CtField.make("public " + resourcePackage + ".Model" + (resource - 1) + " previous;", model));
+            model.addConstructor(CtNewConstructor.defaultConstructor(model));
+            model.writeFile(directory.getPath());
+
+            CtClass klazz = pool.makeClass(resourcePackage + ".Resource" + resource);
+            ConstPool constPool = klazz.getClassFile().getConstPool();
+            AnnotationsAttribute classAnnotations = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+            classAnnotations.addAnnotation(annotation(constPool, Path.class, "value", string(constPool, "/resource" + resource)));
+            classAnnotations.addAnnotation(annotation(constPool, Api.class, "value", string(constPool, "resource" + resource)));
+            if (resource % 2 == 1) classAnnotations.addAnnotation(listing(constPool));
+            klazz.getClassFile().addAttribute(classAnnotations);
+            klazz.addConstructor(CtNewConstructor.defaultConstructor(klazz));
+
+            for (int endpoint = 0; endpoint < ENDPOINTS_PER_RESOURCE; endpoint++) {
+                CtMethod method = CtNewMethod.make("public " + model.getName() + " resource" + resource + "Operation" + endpoint + "(String id) { return null; }", klazz);
+                AnnotationsAttribute methodAnnotations = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+                methodAnnotations.addAnnotation(new Annotation(GET.class.getName(), constPool));
+                methodAnnotations.addAnnotation(annotation(constPool, Path.class, "value", string(constPool, "/operation" + endpoint + "/{id}")));
+                if (resource % 2 == 0 && endpoint % 5 == 0) methodAnnotations.addAnnotation(listing(constPool));
+                method.getMethodInfo().addAttribute(methodAnnotations);
+                ParameterAnnotationsAttribute parameterAnnotations = new ParameterAnnotationsAttribute(constPool, ParameterAnnotationsAttribute.visibleTag);
+                parameterAnnotations.setAnnotations(new Annotation[][]{{annotation(constPool, PathParam.class, "value", string(constPool, "id"))}});
+                method.getMethodInfo().addAttribute(parameterAnnotations);
+                klazz.addMethod(method);
+            }
+            klazz.writeFile(directory.getPath());
+        }
+
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toURI().toURL()}, SyntheticResources.class.getClassLoader());
+        return new SyntheticResources(resourcePackage, classLoader);
+    }
+
+    String getResourcePackage() {
+        return resourcePackage;
+    }
+
+    /**
+     * Runs the given task with the generated classes visible to the classpath scan
+     */
+    <V> V withClassLoader(Callable<V> task) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            return task.call();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static Annotation annotation(ConstPool constPool, Class<?> type, String member, MemberValue value) {
+        Annotation annotation = new Annotation(type.getName(), constPool);
+        annotation.addMemberValue(member, value);
+        return annotation;
+    }
+
+    private static Annotation listing(ConstPool constPool) {
+        ArrayMemberValue values = new ArrayMemberValue(constPool);
+        values.setValue(new MemberValue[]{string(constPool, FILTER)});
+        return annotation(constPool, ApiListing.class, "values", values);
+    }
+
+    private static StringMemberValue string(ConstPool constPool, String value) {
+        return new StringMemberValue(value, constPool);
+    }
+}
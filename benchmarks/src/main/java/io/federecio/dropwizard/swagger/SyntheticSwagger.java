@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.Configuration;
+import io.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The generated resources of a benchmark and their unfiltered swagger, built once per trial
+ */
+@State(Scope.Benchmark)
+public class SyntheticSwagger {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int endpoints;
+
+    SyntheticResources resources;
+    Swagger swagger;
+
+    @Setup
+    public void setUp() throws Exception {
+        resources = SyntheticResources.generate(endpoints);
+        SwaggerBundleConfiguration configuration = configuration(false);
+        swagger = resources.withClassLoader(() -> newBundle().scanSwagger(configuration, helper(configuration)));
+    }
+
+    SwaggerBundleConfiguration configuration(boolean filtered) {
+        SwaggerBundleConfiguration configuration = new SwaggerBundleConfiguration();
+        configuration.setResourcePackage(resources.getResourcePackage());
+        if (filtered) configuration.setApiListingFilters(new HashSet<>(Collections.singleton(SyntheticResources.FILTER)));
+        return configuration;
+    }
+
+    static ConfigurationHelper helper(SwaggerBundleConfiguration configuration) {
+        return new ConfigurationHelper(new Configuration(), configuration);
+    }
+
+    /**
+     * Returns a bundle with an empty scan cache
+     */
+    static SwaggerBundle<Configuration> newBundle() {
+        return new SwaggerBundle<Configuration>() {
+            @Override
+            protected List<SwaggerBundleConfiguration> getSwaggerBundleConfigurations(Configuration configuration) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            protected Authenticator getAuthenticator(Configuration configuration) {
+                return null;
+            }
+        };
+    }
+}
@@ -16,41 +16,136 @@
 package io.federecio.dropwizard.swagger;
 
 import io.swagger.annotations.ApiOperation;
+import io.swagger.config.FilterFactory;
+import io.swagger.core.filter.SwaggerSpecFilter;
 import io.swagger.models.Swagger;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.servlet.ServletConfig;
-import javax.servlet.ServletContext;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.*;
 
 /**
  * ApiListingResource has same code as import io.swagger.jaxrs.listing.ApiListingResource
- * but extends a custom BaseApiListingResource
+ * but extends a custom BaseApiListingResource and writes the pre-serialized swagger kept in the {@link SwaggerSpecCache}.
+ * Conditional requests are answered with 304 using the ETag and Last-Modified of the served variant.
+ * Requests of swagger.json with a {@code since} query parameter are answered with a JSON Patch from the document of
+ * that entity tag when it is still in the history of the swagger, see {@link SwaggerBundleConfiguration#getSpecHistorySize()}
+ * Documents held in memory are answered on the request thread, every other request on the listing executor of the bundle
  */
 
 @Path("/swagger.{type:json|yaml}")
 public class ApiListingResource extends BaseApiListingResource {
 
-    @Context
-    ServletContext context;
+    private static final String JSON_PATCH = "application/json-patch+json";
 
     @GET
-    @Produces({MediaType.APPLICATION_JSON, "application/yaml"})
+    @Produces({MediaType.APPLICATION_JSON, "application/yaml", JSON_PATCH})
     @ApiOperation(value = "The swagger definition in either JSON or YAML", hidden = true)
-    public Response getListing(
+    public void getListing(
             @Context Application app,
             @Context ServletConfig sc,
             @Context HttpHeaders headers,
             @Context UriInfo uriInfo,
-            @PathParam("type") String type) {
-        Swagger swagger = process(app, context, sc, headers, uriInfo);
+            @Context Request request,
+            @PathParam("type") String type,
+            @QueryParam("since") String since,
+            @Suspended AsyncResponse response) {
+        SwaggerMetrics metrics = getMetrics(uriInfo);
+        trackInFlight(response, metrics);
+        Response cached = since == null ? getListing(app, sc, headers, uriInfo, request, type, null, metrics, true) : null;
+        if (cached != null) {
+            response.resume(cached);
+        } else {
+            execute(response, metrics, () -> getListing(app, sc, headers, uriInfo, request, type, since, metrics, false));
+        }
+    }
+
+    /**
+     * Returns the response to a request of the listing, or null if it has to be answered from memory only and the
+     * document is not held in memory as it has to be sent
+     */
+    private Response getListing(Application app, ServletConfig sc, HttpHeaders headers, UriInfo uriInfo, Request request,
+                                String type, String since, SwaggerMetrics metrics, boolean fromMemory) {
+        boolean yaml = StringUtils.isNotBlank(type) && type.trim().equalsIgnoreCase("yaml");
+        String format = yaml ? "yaml" : "json";
+        String contentType = yaml ? "application/yaml" : MediaType.APPLICATION_JSON;
+        String swaggerName = getSwaggerName(uriInfo);
+        SwaggerSpecCache cache = getSpecCache();
+        SwaggerSpecFilter filterImpl = FilterFactory.getFilter();
+
+        SpecEncoder encoder = cache.negotiate(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        String filterKey = filterImpl instanceof CacheableSpecFilter
+                ? getFilterKey((CacheableSpecFilter) filterImpl, headers, uriInfo) : null;
+        String vary = filterKey == null ? HttpHeaders.ACCEPT_ENCODING : getVary((CacheableSpecFilter) filterImpl);
+
+        // Patches are only built between unfiltered documents, any other request gets the whole document
+        if (since != null && !yaml && filterImpl == null) {
+            SerializedSpec patch = cache.getPatch(swaggerName, since);
+            if (patch != null) {
+                return respond(request, patch.encodedWith(encoder), format, JSON_PATCH, vary, cache.getCacheControl(swaggerName), metrics);
+            }
+        }
+
+        // A document that has already been served can be revalidated without touching the swagger
+        if (filterImpl == null || filterKey != null) {
+            SerializedSpec cached = filterKey == null ? cache.peek(swaggerName, format) : cache.peek(swaggerName, format, filterKey);
+            if (cached != null && cached.isAvailable(encoder)) {
+                metrics.getCacheHits().mark();
+                return respond(request, cached.encodedWith(encoder), format, contentType, vary, cache.getCacheControl(swaggerName), metrics);
+            }
+            if (cached != null && !fromMemory) {
+                cached = cached.encodedWith(encoder);
+                Response.ResponseBuilder notModified = request.evaluatePreconditions(cached.getLastModified(), cached.getEntityTag());
+                if (notModified != null) {
+                    metrics.getCacheHits().mark();
+                    return withValidators(notModified, cached, vary, cache.getCacheControl(swaggerName)).build();
+                }
+            }
+        }
+
+        if (fromMemory) return null;
+
+        if (cache.isWarmingUp(swaggerName)) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, 1).build();
+        }
+        if (cache.isWarmUpFailed(swaggerName)) return Response.serverError().build();
+
+        // The documents of a swagger published by the bundle are cached under its name, which spares reading back
+        // the swagger of a configuration with compact storage unless a filter has to be applied
+        if (getSpec(uriInfo) != null && (filterImpl == null || filterKey != null)) {
+            SerializedSpec spec = filterImpl == null
+                    ? cache.get(swaggerName, format)
+                    : cache.get(swaggerName, format, filterKey, () -> filter(getSwagger(app, context, sc, uriInfo), headers, uriInfo));
+            if (spec == null) return Response.status(404).build();
+            return respond(request, spec.encodedWith(encoder), format, contentType, vary, cache.getCacheControl(swaggerName), metrics);
+        }
+
+        Swagger swagger = getSwagger(app, context, sc, uriInfo);
 
         if (swagger == null) return Response.status(404).build();
 
-        String contentType = StringUtils.isNotBlank(type) && type.trim().equalsIgnoreCase("yaml")
-                ? "application/yaml" : MediaType.APPLICATION_JSON;
-        return Response.ok().entity(swagger).type(contentType).build();
+        // The output of any filter that is not cacheable is streamed to the client on every request and left
+        // to the server's own compression
+        if (filterImpl != null && filterKey == null) {
+            return stream(cache, swaggerName, format, filter(swagger, headers, uriInfo), contentType);
+        }
+
+        // Unfiltered swaggers and the output of cacheable filters are shared between requests and precompressed
+        SerializedSpec spec = filterImpl == null
+                ? cache.get(swaggerName, format, swagger).encodedWith(encoder)
+                : cache.get(swaggerName, format, filterKey, swagger, () -> filter(swagger, headers, uriInfo)).encodedWith(encoder);
+        return respond(request, spec, format, contentType, vary, cache.getCacheControl(swaggerName), metrics);
     }
-}
 
+    private static Response respond(Request request, SerializedSpec spec, String format, String contentType, String vary,
+                                    String cacheControl, SwaggerMetrics metrics) {
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(spec.getLastModified(), spec.getEntityTag());
+        if (notModified != null) return withValidators(notModified, spec, vary, cacheControl).build();
+
+        metrics.getResponseBytes(format).update(spec.getLength());
+        return withValidators(Response.ok().entity(spec.getBody()).type(contentType), spec, vary, cacheControl).build();
+    }
+}
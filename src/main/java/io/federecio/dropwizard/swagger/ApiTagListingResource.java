@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.config.FilterFactory;
+import io.swagger.core.filter.SwaggerSpecFilter;
+import io.swagger.models.Swagger;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.servlet.ServletConfig;
+import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.*;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Serves the swagger of a {@link SwaggerBundleConfiguration} split per tag (see {@link SwaggerTagShards}), so that
+ * clients interested in a few tags do not have to download the whole definition. The index lists every shard
+ * and its URL. Shards of unfiltered swaggers, and those of a {@link CacheableSpecFilter} for each of its filter keys,
+ * are serialized once and validated with their own ETag, shards of other filters are rebuilt and streamed on every
+ * request. Like the {@link ApiListingResource}, documents held in
+ * memory are answered on the request thread and every other request on the listing executor of the bundle.
+ */
+
+@Path(Constants.SWAGGER_TAGS_PATH)
+public class ApiTagListingResource extends BaseApiListingResource {
+
+    private static final String INDEX_PATH = "/index.{type:json|yaml}";
+    private static final String SHARD_PATH = "/{tag}/swagger.{type:json|yaml}";
+
+    @GET
+    @Path(INDEX_PATH)
+    @Produces({MediaType.APPLICATION_JSON, "application/yaml"})
+    @ApiOperation(value = "The index of the swagger definitions of every tag in either JSON or YAML", hidden = true)
+    public void getIndex(
+            @Context Application app,
+            @Context ServletConfig sc,
+            @Context HttpHeaders headers,
+            @Context UriInfo uriInfo,
+            @Context Request request,
+            @PathParam("type") String type,
+            @Suspended AsyncResponse response) {
+        getDocument(app, sc, headers, uriInfo, request, type, null, response);
+    }
+
+    @GET
+    @Path(SHARD_PATH)
+    @Produces({MediaType.APPLICATION_JSON, "application/yaml"})
+    @ApiOperation(value = "The swagger definition of a single tag in either JSON or YAML", hidden = true)
+    public void getShard(
+            @Context Application app,
+            @Context ServletConfig sc,
+            @Context HttpHeaders headers,
+            @Context UriInfo uriInfo,
+            @Context Request request,
+            @PathParam("tag") String tag,
+            @PathParam("type") String type,
+            @Suspended AsyncResponse response) {
+        getDocument(app, sc, headers, uriInfo, request, type, tag, response);
+    }
+
+    private void getDocument(Application app, ServletConfig sc, HttpHeaders headers, UriInfo uriInfo, Request request,
+                             String type, String tag, AsyncResponse response) {
+        SwaggerMetrics metrics = getMetrics(uriInfo);
+        trackInFlight(response, metrics);
+        Response cached = getDocument(app, sc, headers, uriInfo, request, type, tag, metrics, true);
+        if (cached != null) {
+            response.resume(cached);
+        } else {
+            execute(response, metrics, () -> getDocument(app, sc, headers, uriInfo, request, type, tag, metrics, false));
+        }
+    }
+
+    /**
+     * Returns the response to a request of the index or of a shard, or null if it has to be answered from memory only
+     * and the document is not held in memory as it has to be sent
+     */
+    private Response getDocument(Application app, ServletConfig sc, HttpHeaders headers, UriInfo uriInfo, Request request,
+                                 String type, String tag, SwaggerMetrics metrics, boolean fromMemory) {
+        boolean yaml = StringUtils.isNotBlank(type) && type.trim().equalsIgnoreCase("yaml");
+        String format = yaml ? "yaml" : "json";
+        String contentType = yaml ? "application/yaml" : MediaType.APPLICATION_JSON;
+        String swaggerName = getSwaggerName(uriInfo);
+        SwaggerSpecCache cache = getSpecCache();
+        SwaggerSpecFilter filterImpl = FilterFactory.getFilter();
+        SpecEncoder encoder = cache.negotiate(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        String filterKey = filterImpl instanceof CacheableSpecFilter
+                ? getFilterKey((CacheableSpecFilter) filterImpl, headers, uriInfo) : null;
+        String vary = filterKey == null ? HttpHeaders.ACCEPT_ENCODING : getVary((CacheableSpecFilter) filterImpl);
+        String cacheControl = cache.getCacheControl(swaggerName);
+
+        if (filterImpl == null || filterKey != null) {
+            SerializedSpec cached = filterImpl == null
+                    ? (tag == null ? cache.peekTagIndex(swaggerName, format) : cache.peekTagShard(swaggerName, format, tag))
+                    : (tag == null ? cache.peekTagIndex(swaggerName, format, filterKey) : cache.peekTagShard(swaggerName, format, tag, filterKey));
+            if (cached != null && cached.isAvailable(encoder)) {
+                metrics.getCacheHits().mark();
+                return respond(request, cached.encodedWith(encoder), format, contentType, vary, cacheControl, metrics);
+            }
+            if (cached != null && !fromMemory) {
+                cached = cached.encodedWith(encoder);
+                Response.ResponseBuilder notModified = request.evaluatePreconditions(cached.getLastModified(), cached.getEntityTag());
+                if (notModified != null) {
+                    metrics.getCacheHits().mark();
+                    return withValidators(notModified, cached, vary, cacheControl).build();
+                }
+            }
+        }
+
+        if (fromMemory) return null;
+
+        if (cache.isWarmingUp(swaggerName)) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, 1).build();
+        }
+        if (cache.isWarmUpFailed(swaggerName)) return Response.serverError().build();
+
+        // Served by name for the same reason as the ApiListingResource
+        if (getSpec(uriInfo) != null && (filterImpl == null || filterKey != null)) {
+            SerializedSpec spec;
+            if (filterImpl == null) {
+                spec = tag == null ? cache.getTagIndex(swaggerName, format) : cache.getTagShard(swaggerName, format, tag);
+            } else {
+                Supplier<Map<String, Swagger>> shards = () -> SwaggerTagShards.split(filter(getSwagger(app, context, sc, uriInfo), headers, uriInfo));
+                spec = tag == null
+                        ? cache.getTagIndex(swaggerName, format, filterKey, shards)
+                        : cache.getTagShard(swaggerName, format, tag, filterKey, shards);
+            }
+            if (spec == null) return Response.status(404).build();
+            return respond(request, spec.encodedWith(encoder), format, contentType, vary, cacheControl, metrics);
+        }
+
+        Swagger swagger = getSwagger(app, context, sc, uriInfo);
+
+        if (swagger == null) return Response.status(404).build();
+
+        Supplier<Map<String, Swagger>> shards = () -> SwaggerTagShards.split(filter(swagger, headers, uriInfo));
+
+        // The shards of a filter that is not cacheable are split and streamed on every request like the listing
+        if (filterImpl != null && filterKey == null) {
+            Map<String, Swagger> filtered = shards.get();
+            Object document = tag == null ? SwaggerTagShards.index(filtered, format) : filtered.get(tag);
+            if (document == null) return Response.status(404).build();
+            return stream(cache, swaggerName, format, document, contentType);
+        }
+
+        SerializedSpec spec;
+        if (filterImpl == null) {
+            spec = tag == null ? cache.getTagIndex(swaggerName, format, swagger) : cache.getTagShard(swaggerName, format, tag, swagger);
+        } else {
+            spec = tag == null
+                    ? cache.getTagIndex(swaggerName, format, filterKey, swagger, shards)
+                    : cache.getTagShard(swaggerName, format, tag, filterKey, swagger, shards);
+        }
+        if (spec == null) return Response.status(404).build();
+        return respond(request, spec.encodedWith(encoder), format, contentType, vary, cacheControl, metrics);
+    }
+
+    private static Response respond(Request request, SerializedSpec spec, String format, String contentType, String vary,
+                                    String cacheControl, SwaggerMetrics metrics) {
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(spec.getLastModified(), spec.getEntityTag());
+        if (notModified != null) return withValidators(notModified, spec, vary, cacheControl).build();
+
+        metrics.getResponseBytes(format).update(spec.getLength());
+        return withValidators(Response.ok().entity(spec.getBody()).type(contentType), spec, vary, cacheControl).build();
+    }
+
+    /**
+     * Strips the index or shard part of the request path, which leaves the path of the swagger listing
+     */
+    @Override
+    protected String getPath(UriInfo uriInfo) {
+        String path = uriInfo.getRequestUri().getRawPath();
+        boolean shard = path.endsWith("/swagger.json") || path.endsWith("/swagger.yaml");
+        path = path.substring(0, path.lastIndexOf('/'));
+        if (shard) path = path.substring(0, path.lastIndexOf('/'));
+        return path.substring(0, path.length() - Constants.SWAGGER_TAGS_PATH.length());
+    }
+}
@@ -16,17 +16,109 @@
 
 package io.federecio.dropwizard.swagger;
 
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Checks the credentials sent to the Swagger UI login endpoint and returns a token for them.
+ * <p/>
+ * {@link #login} checks them synchronously, and the bundle calls it on a small pool of its own (see
+ * {@link LoginConfiguration}). Authenticators that can check them without holding any thread can also override
+ * {@link #loginAsync}, which the bundle calls instead.
+ */
 public abstract class Authenticator {
 
+    private volatile LoginCache loginCache;
+    private volatile Executor loginExecutor = Runnable::run;
+    private volatile Duration loginTimeout;
+
+    /**
+     * Returns the token of the given credentials, or null or an empty string if they are not valid
+     */
     public abstract String login(String username, String password);
 
-    public String getToken(
-            @HeaderParam(value = "username") String username,
-            @HeaderParam(value = "password") String password) {
-        String token = login(username, password);
+    /**
+     * Same as {@link #login}, answering asynchronously. By default it calls {@link #login} on the login executor
+     */
+    public CompletionStage<String> loginAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> login(username, password), loginExecutor);
+    }
+
+    /**
+     * Returns the token of the given credentials from {@link #login}, or from memory if logins are cached, and throws
+     * a {@link NotAuthorizedException} if they are not valid
+     *
+     * @deprecated the login endpoint of Swagger UI is answered by {@link #getTokenAsync} and no longer calls this
+     * method. It is only kept for authenticators that call it
+     */
+    @Deprecated
+    public String getToken(String username, String password) {
+        LoginCache cache = loginCache;
+        String token = cache == null ? login(username, password) : cache.login(username, password, this::login);
         if (token == null || token.equals("")) throw new NotAuthorizedException("Not Authorized");
         return token;
     }
+
+    /**
+     * Answers a login to Swagger UI with the token of the given credentials, resuming the given response once
+     * {@link #loginAsync} answers, or with a 401 if they are not valid
+     */
+    public void getTokenAsync(
+            @HeaderParam(value = "username") String username,
+            @HeaderParam(value = "password") String password,
+            @Suspended AsyncResponse response) {
+        Duration timeout = loginTimeout;
+        if (timeout != null) response.setTimeout(timeout.getQuantity(), timeout.getUnit());
+        LoginCache cache = loginCache;
+        CompletionStage<String> login;
+        try {
+            login = cache == null ? loginAsync(username, password) : cache.loginAsync(username, password, this::loginAsync);
+        } catch (RejectedExecutionException e) {
+            response.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity("Too many logins in progress")
+                    .build());
+            return;
+        } catch (RuntimeException e) {
+            response.resume(e);
+            return;
+        }
+        login.whenComplete((token, error) -> {
+            if (error != null) {
+                response.resume(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else if (token == null || token.equals("")) {
+                response.resume(new NotAuthorizedException("Not Authorized"));
+            } else {
+                response.resume(token);
+            }
+        });
+    }
+
+    /**
+     * Answers repeated logins with the same credentials from memory instead of calling {@link #login} every time,
+     * see {@link LoginCacheConfiguration}
+     */
+    void cacheLogins(LoginCacheConfiguration configuration, MetricRegistry metrics) {
+        this.loginCache = new LoginCache(configuration, metrics);
+    }
+
+    /**
+     * Sets how long {@link #getTokenAsync} waits for a login, and the executor the default {@link #loginAsync} calls
+     * {@link #login} on instead of the calling thread
+     */
+    void configureLogins(Duration loginTimeout, Executor loginExecutor) {
+        this.loginTimeout = loginTimeout;
+        this.loginExecutor = loginExecutor;
+    }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package io.federecio.dropwizard.swagger;
 
+import com.codahale.metrics.Timer;
 import io.swagger.config.FilterFactory;
 import io.swagger.config.Scanner;
 import io.swagger.config.SwaggerConfig;
@@ -26,29 +27,52 @@ import io.swagger.jaxrs.config.ReaderConfigUtils;
 import io.swagger.jaxrs.listing.ApiListingResource;
 import io.swagger.jaxrs.listing.SwaggerSerializers;
 import io.swagger.models.Swagger;
+import org.jvnet.hk2.annotations.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
 import javax.ws.rs.core.*;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * The process() was modified to allow calling a customized ctxService.getSwagger(path)
- * Removed isInitialized and will be using Swagger object stored in ServletContext
+ * Removed isInitialized and will be using the Swagger object published in the {@link SwaggerSpecRegistry} of the bundle,
+ * or the one stored in ServletContext for resources registered without the bundle
+ * Scans are tracked per key with a future instead of a global lock, so that each key is scanned at most once
  */
 
 public class BaseApiListingResource extends io.swagger.jaxrs.listing.BaseApiListingResource {
-    private static volatile ConcurrentMap<String, Boolean> initializedScanner = new ConcurrentHashMap<>();
-    private static volatile ConcurrentMap<String, Boolean> initializedConfig = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CompletableFuture<Swagger>> scans = new ConcurrentHashMap<>();
+    private static final String UNCACHEABLE = "private, no-cache";
     private static Logger LOGGER = LoggerFactory.getLogger(io.swagger.jaxrs.listing.BaseApiListingResource.class);
 
+    @Context
+    ServletContext context;
+
+    @Inject
+    @Optional
+    SwaggerSpecRegistry registry;
+
+    @Inject
+    @Optional
+    SwaggerListingExecutor listingExecutor;
+
 
     protected Swagger process(
             Application app,
@@ -57,39 +81,195 @@ public class BaseApiListingResource extends io.swagger.jaxrs.listing.BaseApiList
             HttpHeaders headers,
             UriInfo uriInfo) {
 
+        return filter(getSwagger(app, servletContext, sc, uriInfo), headers, uriInfo);
+    }
+
+    /**
+     * Returns the unfiltered swagger of the requested path, scanning for it if it has not been initialized yet.
+     * Its fragments are shared with other swaggers, so it must be copied before being modified
+     */
+    protected Swagger getSwagger(
+            Application app,
+            ServletContext servletContext,
+            ServletConfig sc,
+            UriInfo uriInfo) {
+
+        SwaggerSpecRegistry.Spec spec = getSpec(uriInfo);
+        if (spec != null) {
+            return spec.getConfiguration().isCompactStorage() ? getSpecCache().getSwagger(spec.getName()) : spec.getSwagger();
+        }
+
         SwaggerContextService ctxService = new SwaggerContextService(sc, getBasePath(uriInfo));
         Swagger swagger = ctxService.getSwagger(getPath(uriInfo));
 
-        synchronized (ApiListingResource.class) {
-            if (SwaggerContextService.isScannerIdInitParamDefined(sc)) {
-                if (!initializedScanner.containsKey(sc.getServletName() + "_" + SwaggerContextService.getScannerIdFromInitParam(sc))) {
-                    swagger = scan(app, servletContext, sc, uriInfo);
-                }
-            } else if (SwaggerContextService.isConfigIdInitParamDefined(sc)) {
-                if (!initializedConfig.containsKey(sc.getServletName() + "_" + SwaggerContextService.getConfigIdFromInitParam(sc))) {
-                    swagger = scan(app, servletContext, sc, uriInfo);
-                }
-            } else if (SwaggerContextService.isUsePathBasedConfigInitParamDefined(sc)) {
-                if (!initializedConfig.containsKey(sc.getServletName() + "_" + ctxService.getBasePath())) {
-                    swagger = scan(app, servletContext, sc, uriInfo);
+        String scanKey = getScanKey(sc, uriInfo, swagger);
+        if (scanKey == null) return swagger;
+
+        // Once the scan of a key has completed this is a single lock-free read of a completed future
+        CompletableFuture<Swagger> scan = scans.get(scanKey);
+        if (scan != null && scan.isDone() && swagger != null) return swagger;
+
+        return scanOnce(scanKey, app, servletContext, sc, uriInfo);
+    }
+
+    /**
+     * Runs the scan of the given key unless another caller already started it, in which case the
+     * result of that scan is awaited instead. A failed scan is forgotten so that the next caller retries it.
+     */
+    private static Swagger scanOnce(String scanKey, Application app, ServletContext servletContext, ServletConfig sc, UriInfo uriInfo) {
+        CompletableFuture<Swagger> scan = scans.get(scanKey);
+        if (scan == null) {
+            CompletableFuture<Swagger> ownScan = new CompletableFuture<>();
+            scan = scans.putIfAbsent(scanKey, ownScan);
+            if (scan == null) {
+                try {
+                    ownScan.complete(scan(app, servletContext, sc, uriInfo));
+                } catch (RuntimeException e) {
+                    scans.remove(scanKey, ownScan);
+                    ownScan.completeExceptionally(e);
+                    throw e;
                 }
-            } else if (swagger == null) {
-                swagger = scan(app, servletContext, sc, uriInfo);
+                return ownScan.join();
             }
         }
+        try {
+            return scan.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Returns the key under which the scan of the requested swagger is tracked, or null when the swagger
+     * is already available and does not need to be scanned
+     */
+    private static String getScanKey(ServletConfig sc, UriInfo uriInfo, Swagger swagger) {
+        if (SwaggerContextService.isScannerIdInitParamDefined(sc)) {
+            return "scanner_" + sc.getServletName() + "_" + SwaggerContextService.getScannerIdFromInitParam(sc);
+        } else if (SwaggerContextService.isConfigIdInitParamDefined(sc)) {
+            return "config_" + sc.getServletName() + "_" + SwaggerContextService.getConfigIdFromInitParam(sc);
+        } else if (SwaggerContextService.isUsePathBasedConfigInitParamDefined(sc)) {
+            return "config_" + sc.getServletName() + "_" + getBasePath(uriInfo);
+        } else if (swagger == null) {
+            return "default_" + (sc != null ? sc.getServletName() : "") + "_" + getBasePath(uriInfo);
+        }
+        return null;
+    }
 
+    /**
+     * Applies the {@link SwaggerSpecFilter} registered in the {@link FilterFactory}, if any, to the given swagger
+     */
+    protected Swagger filter(Swagger swagger, HttpHeaders headers, UriInfo uriInfo) {
         if (swagger != null) {
             SwaggerSpecFilter filterImpl = FilterFactory.getFilter();
             if (filterImpl != null) {
-                SpecFilter f = new SpecFilter();
-                swagger = f.filter(swagger, filterImpl, getQueryParams(uriInfo.getQueryParameters()), getCookies(headers),
-                        getHeaders(headers));
+                try (Timer.Context ignored = getMetrics(uriInfo).getFilter().time()) {
+                    SpecFilter f = new SpecFilter();
+                    swagger = f.filter(swagger, filterImpl, getQueryParams(uriInfo.getQueryParameters()), getCookies(headers),
+                            getHeaders(headers));
+                }
             }
         }
         return swagger;
     }
 
-    private static synchronized Swagger scan(Application app, ServletContext context, ServletConfig sc, UriInfo uriInfo) {
+    /**
+     * Resumes the given response with the given listing, which is run on the listing executor of the bundle, or on the
+     * request thread for resources registered without the bundle
+     */
+    protected void execute(AsyncResponse response, SwaggerMetrics metrics, Supplier<Response> listing) {
+        Runnable work = () -> {
+            // Already answered with a 503 while it was waiting for a thread
+            if (response.isDone()) return;
+            try {
+                response.resume(listing.get());
+            } catch (RuntimeException e) {
+                response.resume(e);
+            }
+        };
+        if (listingExecutor == null) {
+            work.run();
+        } else {
+            listingExecutor.execute(response, metrics, work);
+        }
+    }
+
+    /**
+     * Counts the given request in the in-flight metric until it has been answered, whether from memory, on the
+     * listing executor or with a 503
+     */
+    protected static void trackInFlight(AsyncResponse response, SwaggerMetrics metrics) {
+        metrics.getInFlight().inc();
+        response.register((CompletionCallback) failure -> metrics.getInFlight().dec());
+    }
+
+    /**
+     * Returns the metrics of the swagger of the requested path
+     */
+    protected SwaggerMetrics getMetrics(UriInfo uriInfo) {
+        SwaggerSpecRegistry.Spec spec = getSpec(uriInfo);
+        if (spec != null) return spec.getMetrics();
+        return context == null ? SwaggerMetrics.UNREGISTERED : SwaggerSpecCache.from(context).getMetrics(getSwaggerName(uriInfo));
+    }
+
+    /**
+     * Returns the swagger the bundle registered for the requested resource, or null if the resource was registered
+     * without the bundle
+     */
+    protected SwaggerSpecRegistry.Spec getSpec(UriInfo uriInfo) {
+        return registry == null ? null : registry.get(uriInfo);
+    }
+
+    /**
+     * Returns the cache of the serialized documents of the bundle
+     */
+    protected SwaggerSpecCache getSpecCache() {
+        return registry == null ? SwaggerSpecCache.from(context) : registry.getSpecCache();
+    }
+
+    /**
+     * Returns the key identifying the output of the given filter for this request, made of the filter class
+     * and the values of the headers, cookies and query parameters it declares to depend on
+     */
+    protected static String getFilterKey(CacheableSpecFilter filter, HttpHeaders headers, UriInfo uriInfo) {
+        StringBuilder key = new StringBuilder(filter.getClass().getName());
+        for (String header : new TreeSet<>(filter.getCacheKeyHeaders())) {
+            appendFilterKeyPart(key, 'h', header.toLowerCase(Locale.ENGLISH), headers.getRequestHeader(header));
+        }
+        for (String cookie : new TreeSet<>(filter.getCacheKeyCookies())) {
+            Cookie value = headers.getCookies().get(cookie);
+            appendFilterKeyPart(key, 'c', cookie, value == null ? null : Collections.singletonList(value.getValue()));
+        }
+        for (String param : new TreeSet<>(filter.getCacheKeyQueryParams())) {
+            appendFilterKeyPart(key, 'q', param, uriInfo.getQueryParameters().get(param));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the Vary header of the documents filtered by the given filter: the headers it depends on, and Cookie
+     * if it depends on any cookie, along with Accept-Encoding
+     */
+    protected static String getVary(CacheableSpecFilter filter) {
+        StringBuilder vary = new StringBuilder(HttpHeaders.ACCEPT_ENCODING);
+        filter.getCacheKeyHeaders().forEach(header -> vary.append(", ").append(header));
+        if (!filter.getCacheKeyCookies().isEmpty()) vary.append(", ").append(HttpHeaders.COOKIE);
+        return vary.toString();
+    }
+
+    // Every part is length prefixed so that different inputs can never produce the same key
+    private static void appendFilterKeyPart(StringBuilder key, char kind, String name, List<String> values) {
+        key.append('|').append(kind).append(name.length()).append(':').append(name);
+        if (values == null) {
+            key.append('-');
+            return;
+        }
+        for (String value : values) {
+            key.append(value == null ? 0 : value.length()).append(':').append(value == null ? "" : value);
+        }
+    }
+
+    private static Swagger scan(Application app, ServletContext context, ServletConfig sc, UriInfo uriInfo) {
         Swagger swagger = null;
 
         io.swagger.jaxrs.config.SwaggerContextService ctxService = new io.swagger.jaxrs.config.SwaggerContextService()
@@ -99,6 +279,7 @@ public class BaseApiListingResource extends io.swagger.jaxrs.listing.BaseApiList
         Scanner scanner = ctxService.getScanner();
         if (scanner != null) {
             SwaggerSerializers.setPrettyPrint(scanner.getPrettyPrint());
+            SwaggerSpecCache.from(context).setPrettyPrint(scanner.getPrettyPrint());
             swagger = new io.swagger.jaxrs.config.SwaggerContextService()
                     .withServletConfig(sc)
                     .withBasePath(getBasePath(uriInfo))
@@ -131,14 +312,6 @@ public class BaseApiListingResource extends io.swagger.jaxrs.listing.BaseApiList
             }
         }
 
-        if (io.swagger.jaxrs.config.SwaggerContextService.isScannerIdInitParamDefined(sc)) {
-            initializedScanner.put(sc.getServletName() + "_" + io.swagger.jaxrs.config.SwaggerContextService.getScannerIdFromInitParam(sc), true);
-        } else if (io.swagger.jaxrs.config.SwaggerContextService.isConfigIdInitParamDefined(sc)) {
-            initializedConfig.put(sc.getServletName() + "_" + io.swagger.jaxrs.config.SwaggerContextService.getConfigIdFromInitParam(sc), true);
-        } else if (io.swagger.jaxrs.config.SwaggerContextService.isUsePathBasedConfigInitParamDefined(sc)) {
-            initializedConfig.put(sc.getServletName() + "_" + ctxService.getBasePath(), true);
-        }
-
         return swagger;
     }
 
@@ -175,7 +348,41 @@ public class BaseApiListingResource extends io.swagger.jaxrs.listing.BaseApiList
         return output;
     }
 
-    private String getPath(UriInfo uriInfo) {
+    /**
+     * Returns the name under which the swagger of the requested path is stored, see {@link ConfigurationHelper#getSwaggerName()}
+     */
+    protected String getSwaggerName(UriInfo uriInfo) {
+        SwaggerSpecRegistry.Spec spec = getSpec(uriInfo);
+        if (spec != null) return spec.getName();
+        return "swagger" + getPath(uriInfo);
+    }
+
+    /**
+     * Returns the response streaming a document a filter that is not cacheable built for this request only. It may
+     * differ from one user to another, so it is never stored by shared caches nor reused without being requested again,
+     * whatever Cache-Control is configured, and it has no validators since it is never buffered to compute them
+     */
+    protected static Response stream(SwaggerSpecCache cache, String swaggerName, String format, Object document, String contentType) {
+        return Response.ok(cache.stream(swaggerName, format, document), contentType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CACHE_CONTROL, UNCACHEABLE)
+                .build();
+    }
+
+    /**
+     * Sets the validators, Vary, Content-Encoding and Cache-Control headers of a response carrying the given document
+     */
+    protected static Response.ResponseBuilder withValidators(Response.ResponseBuilder builder, SerializedSpec spec, String vary, String cacheControl) {
+        builder.tag(spec.getEntityTag()).lastModified(spec.getLastModified()).header(HttpHeaders.VARY, vary);
+        if (spec.getContentEncoding() != null) builder.encoding(spec.getContentEncoding());
+        if (cacheControl != null) builder.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return builder;
+    }
+
+    /**
+     * Returns the path the swagger of the request is published under, see {@link ConfigurationHelper#getSwaggerViewPath()}
+     */
+    protected String getPath(UriInfo uriInfo) {
         String path = uriInfo.getRequestUri().getPath();
         return path.contains("/swagger.json")
                 ? path.replace("/swagger.json", "")
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.core.filter.SwaggerSpecFilter;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A {@link SwaggerSpecFilter} whose decisions only depend on the declared request headers, cookies and
+ * query parameters. Requests that carry the same values for them share one filtered and serialized swagger,
+ * kept in a bounded cache (see {@link SwaggerBundleConfiguration#getFilteredSpecCacheSize()}).
+ * <p/>
+ * Filters that do not implement this interface are applied on every request.
+ * <p/>
+ * Like any filter applied by the bundle, it must not modify the operations, parameters, models or properties it is
+ * given, which are shared between every swagger that holds the same ones.
+ */
+public interface CacheableSpecFilter extends SwaggerSpecFilter {
+
+    /**
+     * Returns the names of the request headers the filter depends on
+     */
+    default Set<String> getCacheKeyHeaders() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the names of the cookies the filter depends on
+     */
+    default Set<String> getCacheKeyCookies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the names of the query parameters the filter depends on
+     */
+    default Set<String> getCacheKeyQueryParams() {
+        return Collections.emptySet();
+    }
+}
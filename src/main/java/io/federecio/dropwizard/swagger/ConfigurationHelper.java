@@ -15,6 +15,7 @@
  */
 package io.federecio.dropwizard.swagger;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.Configuration;
 import io.dropwizard.server.DefaultServerFactory;
 import io.dropwizard.server.ServerFactory;
@@ -63,6 +64,11 @@ public class ConfigurationHelper {
         return (uriPrefix.equals("/") ? "" : uriPrefix) + "/swagger.{type:json|yaml}";
     }
 
+    public String getSwaggerTagsPath(){
+        final String uriPrefix = stripUrlSlashes(this.swaggerBundleConfiguration.getUriPrefix());
+        return (uriPrefix.equals("/") ? "" : uriPrefix) + Constants.SWAGGER_TAGS_PATH;
+    }
+
     public String getBaseUrl() {
         final String applicationContextPath = getApplicationContextPath();
         final String rootPath = getJerseyRootPath();
@@ -81,6 +87,19 @@ public class ConfigurationHelper {
         return "swagger" + getSwaggerViewPath();
     }
 
+    /**
+     * Returns the prefix of the metrics of this configuration, {@code swagger.spec.default} for the one without uri
+     * prefix. They are kept apart from the bundle-wide {@code swagger.*} metrics, which a uri prefix could clash with
+     */
+    public String getMetricsName() {
+        final String uriPrefix = stripAndNormalizeUrl(this.swaggerBundleConfiguration.getUriPrefix());
+        return MetricRegistry.name("swagger", "spec", uriPrefix.equals("/") ? "default" : uriPrefix.substring(1).replace('/', '.'));
+    }
+
+    public String getGeneratedSpecResource() {
+        return Constants.GENERATED_SPECS_PATH + "/" + getSwaggerName() + ".json";
+    }
+
     private String getJerseyRootPath() {
         ServerFactory serverFactory = configuration.getServerFactory();
         return serverFactory instanceof SimpleServerFactory
@@ -116,6 +135,10 @@ public class ConfigurationHelper {
         return normalizeUrl(stripUrlSlashes(url));
     }
 
+    SwaggerBundleConfiguration getSwaggerBundleConfiguration() {
+        return swaggerBundleConfiguration;
+    }
+
     protected HashSet<String> getApiListingFilters(){
         return swaggerBundleConfiguration.getApiListingFilters();
     }
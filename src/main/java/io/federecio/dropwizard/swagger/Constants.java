@@ -52,4 +52,14 @@ public class Constants {
      * The path to which Swagger authentication are bound to
      */
     public static final String SWAGGER_LOGIN_PATH = "/swagger/login";
+
+    /**
+     * The classpath directory in which the swagger definitions generated at build time are stored
+     */
+    public static final String GENERATED_SPECS_PATH = "META-INF/dropwizard-swagger";
+
+    /**
+     * The path, relative to the swagger listing, under which the per-tag shards of a swagger are served
+     */
+    public static final String SWAGGER_TAGS_PATH = "/swagger-tags";
 }
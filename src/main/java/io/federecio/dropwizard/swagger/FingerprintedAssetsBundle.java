@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import io.dropwizard.assets.AssetsBundle;
+import io.dropwizard.servlets.assets.AssetServlet;
+import org.reflections.Reflections;
+import org.reflections.scanners.ResourcesScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the Swagger static assets under a path that contains a hash of their content, so that browsers can
+ * cache them forever and only download them again when a new version of the assets is deployed.
+ * <p/>
+ * The whole directory is fingerprinted at once rather than each file, so that the relative URLs between the
+ * assets (e.g. from the stylesheets to the images and fonts) keep working under the fingerprinted path.
+ */
+class FingerprintedAssetsBundle extends AssetsBundle {
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    FingerprintedAssetsBundle(String resourcePath, String uriPath, String name) {
+        super(resourcePath, uriPath, null, name);
+    }
+
+    /**
+     * Returns the hash of the names and contents of every asset found in the given classpath directory
+     */
+    static String fingerprint(String resourcePath) throws IOException {
+        String directory = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(ClasspathHelper.forPackage(directory))
+                .filterInputsBy(new FilterBuilder().includePackage(directory))
+                .setScanners(new ResourcesScanner()));
+        Set<String> assets = new TreeSet<>(reflections.getResources(Pattern.compile(".*")));
+
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String asset : assets) {
+            URL url = FingerprintedAssetsBundle.class.getClassLoader().getResource(asset);
+            if (url == null) continue;
+            hasher.putString(asset, StandardCharsets.UTF_8).putBytes(Resources.toByteArray(url));
+        }
+        return hasher.hash().toString().substring(0, 16);
+    }
+
+    @Override
+    protected AssetServlet createServlet() {
+        return new AssetServlet(getResourcePath(), getUriPath(), getIndexFile(), StandardCharsets.UTF_8) {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+                super.doGet(req, new ImmutableWhenFound(resp));
+            }
+        };
+    }
+
+    /**
+     * Only marks the assets that are found as immutable, so that a mistyped or stale fingerprinted path does not
+     * get its 404 cached for a year. The header is added once the status is known, before the body is written.
+     */
+    private static class ImmutableWhenFound extends HttpServletResponseWrapper {
+
+        private ImmutableWhenFound(HttpServletResponse response) {
+            super(response);
+        }
+
+        // Jetty drops the Cache-Control header of errors, and the asset servlet answers 304s as one
+        @Override
+        public void sendError(int sc) throws IOException {
+            if (sc == SC_NOT_MODIFIED) {
+                setStatus(sc);
+                cacheIfFound(sc);
+            } else {
+                super.sendError(sc);
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            if (sc == SC_NOT_MODIFIED) {
+                sendError(sc);
+            } else {
+                super.sendError(sc, msg);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            cacheIfFound(getStatus());
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            cacheIfFound(getStatus());
+            return super.getWriter();
+        }
+
+        private void cacheIfFound(int status) {
+            if (status == SC_OK || status == SC_NOT_MODIFIED) setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes the finished swagger of every {@link SwaggerBundleConfiguration} into a directory as classpath
+ * resources, to be packaged with the application and loaded at startup instead of scanning the resource
+ * packages (see {@link SwaggerBundleConfiguration#isUseGeneratedSpec()}).
+ * <p/>
+ * It is meant to be run during the build, once the classes have been compiled:
+ * <pre>
+ *     java -cp ... com.example.MyApplication generate-swagger config.yml target/classes
+ * </pre>
+ */
+public class GenerateSwaggerCommand<T extends Configuration> extends ConfiguredCommand<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerateSwaggerCommand.class);
+
+    private final SwaggerBundle<T> bundle;
+    private final Class<T> configurationClass;
+
+    GenerateSwaggerCommand(SwaggerBundle<T> bundle, Class<T> configurationClass) {
+        super("generate-swagger", "Generates the swagger definitions to be loaded at startup instead of scanning");
+        this.bundle = bundle;
+        this.configurationClass = configurationClass;
+    }
+
+    @Override
+    protected Class<T> getConfigurationClass() {
+        return configurationClass;
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("output")
+                .required(true)
+                .help("directory the swagger definitions are written to, usually target/classes");
+    }
+
+    @Override
+    protected void run(Bootstrap<T> bootstrap, Namespace namespace, T configuration) throws Exception {
+        File output = new File(namespace.getString("output"));
+        for (SwaggerBundleConfiguration swaggerConfig : bundle.getSwaggerBundleConfigurations(configuration)) {
+            ConfigurationHelper configurationHelper = new ConfigurationHelper(configuration, swaggerConfig);
+            Swagger swagger = bundle.scanSwagger(swaggerConfig, configurationHelper);
+            File file = new File(output, configurationHelper.getGeneratedSpecResource());
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Unable to create directory " + file.getParentFile());
+            }
+            Json.mapper().writeValue(file, swagger);
+            logger.info("Generated swagger definition of {} in {}", configurationHelper.getSwaggerName(), file);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * Settings of the pool that builds the documents of the listing resources, to be returned by
+ * {@link SwaggerBundle#getListingConfiguration} from the application configuration. Documents that have already been
+ * serialized are answered right away, every other request is answered asynchronously on that pool so that scans,
+ * filters and serialization never hold the threads of the application's own endpoints.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ListingConfiguration {
+
+    /**
+     * How long a request may wait for its document before it is answered with a 503
+     */
+    @JsonProperty
+    private Duration timeout = Duration.seconds(30);
+
+    /**
+     * Number of threads building documents
+     */
+    @JsonProperty
+    private int threads = 2;
+
+    /**
+     * Number of requests waiting for one of these threads, beyond which requests are answered with a 503
+     */
+    @JsonProperty
+    private int maxQueuedRequests = 256;
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public void setMaxQueuedRequests(int maxQueuedRequests) {
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+}
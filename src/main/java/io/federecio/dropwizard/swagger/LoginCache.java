@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import javax.ws.rs.ClientErrorException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Remembers the tokens of successful logins so that repeated logins with the same credentials are answered
+ * without calling {@link Authenticator#login}, and rejects the users that failed too many times in a row.
+ * <p/>
+ * Credentials and user names are only kept as a keyed hash, with a random key generated at startup. Lookups are
+ * reported as {@code swagger.login.cache.hits}, {@code swagger.login.cache.misses} and
+ * {@code swagger.login.cache.rejections}.
+ */
+class LoginCache {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final HashFunction keyHash;
+    private final Cache<HashCode, String> tokens;
+    private final Cache<HashCode, AtomicInteger> failures;
+    private final int maxFailures;
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter rejections;
+
+    LoginCache(LoginCacheConfiguration configuration, MetricRegistry metrics) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.keyHash = Hashing.hmacSha256(key);
+        this.tokens = CacheBuilder.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getExpireAfter().getQuantity(), configuration.getExpireAfter().getUnit())
+                .build();
+        this.failures = CacheBuilder.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getFailureWindow().getQuantity(), configuration.getFailureWindow().getUnit())
+                .build();
+        this.maxFailures = configuration.getMaxFailures();
+        this.hits = metrics.meter(MetricRegistry.name("swagger", "login", "cache", "hits"));
+        this.misses = metrics.meter(MetricRegistry.name("swagger", "login", "cache", "misses"));
+        this.rejections = metrics.meter(MetricRegistry.name("swagger", "login", "cache", "rejections"));
+    }
+
+    /**
+     * Returns the token of the given credentials, from memory if they logged in successfully recently or
+     * from the given login function otherwise
+     */
+    String login(String username, String password, BiFunction<String, String, String> login) {
+        HashCode credentials = credentialsKey(username, password);
+        String token = getCachedToken(credentials);
+        if (token != null) return token;
+        HashCode user = userKey(username);
+        checkNotRejected(user);
+        return record(user, credentials, login.apply(username, password));
+    }
+
+    /**
+     * Same as {@link #login}, for a login function that answers asynchronously
+     */
+    CompletionStage<String> loginAsync(String username, String password,
+                                       BiFunction<String, String, CompletionStage<String>> login) {
+        HashCode credentials = credentialsKey(username, password);
+        String token = getCachedToken(credentials);
+        if (token != null) return CompletableFuture.completedFuture(token);
+        HashCode user = userKey(username);
+        try {
+            checkNotRejected(user);
+        } catch (ClientErrorException e) {
+            CompletableFuture<String> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+        return login.apply(username, password).thenApply(checked -> record(user, credentials, checked));
+    }
+
+    private String getCachedToken(HashCode credentials) {
+        String token = tokens.getIfPresent(credentials);
+        if (token != null) {
+            hits.mark();
+        } else {
+            misses.mark();
+        }
+        return token;
+    }
+
+    private void checkNotRejected(HashCode user) {
+        AtomicInteger failed = failures.getIfPresent(user);
+        if (maxFailures > 0 && failed != null && failed.get() >= maxFailures) {
+            rejections.mark();
+            throw new ClientErrorException("Too many failed logins", TOO_MANY_REQUESTS);
+        }
+    }
+
+    private String record(HashCode user, HashCode credentials, String token) {
+        if (token == null || token.equals("")) {
+            if (maxFailures > 0) failures.asMap().computeIfAbsent(user, k -> new AtomicInteger()).incrementAndGet();
+            return token;
+        }
+        failures.invalidate(user);
+        tokens.put(credentials, token);
+        return token;
+    }
+
+    private HashCode credentialsKey(String username, String password) {
+        String user = Strings.nullToEmpty(username);
+        return keyHash.newHasher()
+                .putInt(user.length())
+                .putString(user, StandardCharsets.UTF_8)
+                .putString(Strings.nullToEmpty(password), StandardCharsets.UTF_8)
+                .hash();
+    }
+
+    private HashCode userKey(String username) {
+        return keyHash.hashString(Strings.nullToEmpty(username), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * Settings of the cache of successful logins kept by the {@link Authenticator}, to be returned by
+ * {@link SwaggerBundle#getLoginCacheConfiguration} from the application configuration
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LoginCacheConfiguration {
+
+    /**
+     * Maximum number of successful logins remembered
+     */
+    @JsonProperty
+    private long maximumSize = 1000;
+
+    /**
+     * How long a successful login is answered from memory before the credentials are checked again
+     */
+    @JsonProperty
+    private Duration expireAfter = Duration.minutes(5);
+
+    /**
+     * Number of failed logins of a user after which the next ones are rejected without being checked.
+     * Set it to 0 to never reject
+     */
+    @JsonProperty
+    private int maxFailures = 5;
+
+    /**
+     * How long the failed logins of a user are remembered, and so how long a rejected user has to wait
+     */
+    @JsonProperty
+    private Duration failureWindow = Duration.minutes(1);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfter() {
+        return expireAfter;
+    }
+
+    public void setExpireAfter(Duration expireAfter) {
+        this.expireAfter = expireAfter;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    public void setMaxFailures(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    public Duration getFailureWindow() {
+        return failureWindow;
+    }
+
+    public void setFailureWindow(Duration failureWindow) {
+        this.failureWindow = failureWindow;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * Settings of the login endpoint, to be returned by {@link SwaggerBundle#getLoginConfiguration} from the application
+ * configuration. Logins are answered asynchronously: the request thread is released while the {@link Authenticator}
+ * checks the credentials.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LoginConfiguration {
+
+    /**
+     * How long a login may take before it is answered with a 503
+     */
+    @JsonProperty
+    private Duration timeout = Duration.seconds(30);
+
+    /**
+     * Number of threads calling {@link Authenticator#login} for authenticators that do not override
+     * {@link Authenticator#loginAsync}
+     */
+    @JsonProperty
+    private int threads = 4;
+
+    /**
+     * Number of logins waiting for one of these threads, beyond which logins are answered with a 503
+     */
+    @JsonProperty
+    private int maxQueuedLogins = 128;
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getMaxQueuedLogins() {
+        return maxQueuedLogins;
+    }
+
+    public void setMaxQueuedLogins(int maxQueuedLogins) {
+        this.maxQueuedLogins = maxQueuedLogins;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.converter.ModelConverter;
+import io.swagger.converter.ModelConverterContext;
+import io.swagger.converter.ModelConverters;
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ModelConverter} placed in front of the converters of {@link ModelConverters} that measures how long
+ * the {@link io.swagger.jaxrs.Reader} spends resolving models on the threads that asked for it. Nested resolutions
+ * are only counted once, and the other threads go through it untimed.
+ * <p/>
+ * It is only installed while at least one thread is measuring, so that the resolutions of the rest of the process,
+ * once the scans are over, do not go through it.
+ */
+class ModelResolutionTimer implements ModelConverter {
+
+    private static final ModelResolutionTimer INSTANCE = new ModelResolutionTimer();
+    private static int measuring = 0;
+
+    private final ThreadLocal<Resolutions> resolutions = new ThreadLocal<>();
+
+    /**
+     * Starts measuring the models resolved on the current thread
+     */
+    static synchronized void start() {
+        if (measuring++ == 0) ModelConverters.getInstance().addConverter(INSTANCE);
+        INSTANCE.resolutions.set(new Resolutions());
+    }
+
+    /**
+     * Stops measuring the models resolved on the current thread and returns the time spent resolving them, in
+     * nanoseconds. The converter is removed once no thread is measuring anymore
+     */
+    static synchronized long stop() {
+        Resolutions current = INSTANCE.resolutions.get();
+        INSTANCE.resolutions.remove();
+        if (measuring > 0 && --measuring == 0) ModelConverters.getInstance().removeConverter(INSTANCE);
+        return current == null ? 0 : current.nanos;
+    }
+
+    @Override
+    public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations, Iterator<ModelConverter> chain) {
+        return timed(() -> chain.hasNext() ? chain.next().resolveProperty(type, context, annotations, chain) : null);
+    }
+
+    @Override
+    public Model resolve(Type type, ModelConverterContext context, Iterator<ModelConverter> chain) {
+        return timed(() -> chain.hasNext() ? chain.next().resolve(type, context, chain) : null);
+    }
+
+    private <R> R timed(Supplier<R> resolution) {
+        Resolutions current = resolutions.get();
+        if (current == null) return resolution.get();
+        long start = current.depth++ == 0 ? System.nanoTime() : 0;
+        try {
+            return resolution.get();
+        } finally {
+            if (--current.depth == 0) current.nanos += System.nanoTime() - start;
+        }
+    }
+
+    private static class Resolutions {
+        private int depth;
+        private long nanos;
+    }
+}
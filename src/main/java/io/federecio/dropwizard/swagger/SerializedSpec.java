@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import javax.ws.rs.core.EntityTag;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A serialized variant of a Swagger definition (swagger name, type and applied filter) together with
+ * the validators used to answer conditional requests for it. Precompressed copies of the variant are
+ * built on first use by {@link #encodedWith(SpecEncoder)} and kept alongside it.
+ * <p/>
+ * A compact variant only keeps its gzip copy, and decompresses its body whenever it is needed
+ * (see {@link SwaggerBundleConfiguration#isCompactStorage()}).
+ */
+public class SerializedSpec {
+
+    private static final GzipSpecEncoder GZIP = new GzipSpecEncoder();
+
+    private final byte[] body;
+    private final int length;
+    private final EntityTag entityTag;
+    private final Date lastModified;
+    private final String contentEncoding;
+    private final ConcurrentMap<String, SerializedSpec> encoded = new ConcurrentHashMap<>();
+
+    SerializedSpec(String variant, byte[] body, long lastModified) {
+        this.body = body;
+        this.length = body.length;
+        this.entityTag = new EntityTag(Hashing.murmur3_128().newHasher()
+                .putString(variant, StandardCharsets.UTF_8)
+                .putBytes(body)
+                .hash()
+                .toString());
+        this.lastModified = new Date(lastModified);
+        this.contentEncoding = null;
+    }
+
+    /**
+     * A variant whose entity tag is derived from the one of another variant, like a patch to that other variant
+     */
+    SerializedSpec(EntityTag entityTag, byte[] body, long lastModified) {
+        this.body = body;
+        this.length = body.length;
+        this.entityTag = entityTag;
+        this.lastModified = new Date(lastModified);
+        this.contentEncoding = null;
+    }
+
+    private SerializedSpec(SerializedSpec compacted) {
+        this.body = null;
+        this.length = compacted.length;
+        this.entityTag = compacted.entityTag;
+        this.lastModified = compacted.lastModified;
+        this.contentEncoding = null;
+        encoded.put(GZIP.getName(), compacted.encodedWith(GZIP));
+    }
+
+    /**
+     * Returns a copy of this variant that only keeps its gzip copy, with the same validators
+     */
+    SerializedSpec compact() {
+        if (body == null || contentEncoding != null) return this;
+        return new SerializedSpec(this);
+    }
+
+    private SerializedSpec(SerializedSpec identity, String contentEncoding, byte[] body) {
+        this.body = body;
+        this.length = identity.length;
+        // Each content coding is a different representation and needs its own strong validator
+        this.entityTag = new EntityTag(identity.entityTag.getValue() + "-" + contentEncoding);
+        this.lastModified = identity.lastModified;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * Returns this variant compressed with the given encoder, compressing it only the first time
+     */
+    public SerializedSpec encodedWith(SpecEncoder encoder) {
+        if (encoder == null || contentEncoding != null) return this;
+        return encoded.computeIfAbsent(encoder.getName(), name -> {
+            try {
+                return new SerializedSpec(this, name, encoder.encode(getBody()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to encode swagger definition with " + name, e);
+            }
+        });
+    }
+
+    /**
+     * Returns whether this variant is held in memory as it is sent with the given encoder, i.e. without having to be
+     * compressed or decompressed first
+     */
+    boolean isAvailable(SpecEncoder encoder) {
+        if (encoder == null || contentEncoding != null) return body != null;
+        return encoded.containsKey(encoder.getName());
+    }
+
+    /**
+     * Returns the body of this variant, which is decompressed on every call for compact variants
+     */
+    public byte[] getBody() {
+        if (body != null) return body;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded.get(GZIP.getName()).body))) {
+            return ByteStreams.toByteArray(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to decompress swagger definition", e);
+        }
+    }
+
+    /**
+     * Returns the size of the document before any content coding, without decompressing it
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public EntityTag getEntityTag() {
+        return entityTag;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the content coding of the body, or null if it is not compressed
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+}
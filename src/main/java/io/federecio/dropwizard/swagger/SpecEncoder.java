@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import java.io.IOException;
+
+/**
+ * A content coding (i.e. gzip or br) in which the serialized swagger documents are precompressed once
+ * and then served as is to every client that accepts it.
+ * <p/>
+ * Only {@link GzipSpecEncoder} is provided as the JDK has no brotli encoder, register your own
+ * implementation through {@link SwaggerBundle#getSpecEncoders(io.dropwizard.Configuration)} to add it.
+ */
+public interface SpecEncoder {
+
+    /**
+     * Returns the content coding token as used in the Accept-Encoding and Content-Encoding headers
+     */
+    String getName();
+
+    byte[] encode(byte[] body) throws IOException;
+}
@@ -15,6 +15,7 @@
  */
 package io.federecio.dropwizard.swagger;
 
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.google.common.collect.ImmutableMap;
 import io.dropwizard.Configuration;
@@ -25,17 +26,26 @@ import io.dropwizard.setup.Environment;
 import io.dropwizard.views.ViewBundle;
 import io.swagger.jaxrs.config.BeanConfig;
 import io.swagger.jaxrs.listing.SwaggerSerializers;
-import io.swagger.util.ReflectionUtils;
-import org.glassfish.jersey.process.Inflector;
+import io.swagger.models.Contact;
+import io.swagger.models.Info;
+import io.swagger.models.License;
+import io.swagger.models.Scheme;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import org.apache.commons.lang3.StringUtils;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.glassfish.jersey.server.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.ws.rs.Path;
-import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.*;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link ConfiguredBundle} that provides hassle-free configuration of Swagger and Swagger UI
@@ -49,15 +59,25 @@ public abstract class SwaggerBundle<T extends Configuration> implements Configur
 
     private static Logger logger = LoggerFactory.getLogger(SwaggerBundle.class);
     private static boolean assetBundleRegistered = false;
+    private static String assetsFingerprint;
+
+    private final SwaggerScanCache scanCache = new SwaggerScanCache();
+    private final SwaggerStartupProfile startupProfile = new SwaggerStartupProfile();
+    private final Map<ConfigurationHelper, SwaggerSpecRegistry.Spec> specs = new LinkedHashMap<>();
+    private SwaggerSpecRegistry registry;
 
     @Override
+    @SuppressWarnings("unchecked")
     public void initialize(Bootstrap<?> bootstrap) {
-        bootstrap.addBundle(new ViewBundle<Configuration>() {
-            @Override
-            public Map<String, Map<String, String>> getViewConfiguration(final Configuration configuration) {
-                return ImmutableMap.of();
-            }
-        });
+        bootstrap.addCommand(new GenerateSwaggerCommand<>(this, (Class<T>) bootstrap.getApplication().getConfigurationClass()));
+        if (isTemplatingEnabled()) {
+            bootstrap.addBundle(new ViewBundle<Configuration>() {
+                @Override
+                public Map<String, Map<String, String>> getViewConfiguration(final Configuration configuration) {
+                    return ImmutableMap.of();
+                }
+            });
+        }
     }
 
     @Override
@@ -68,23 +88,63 @@ public abstract class SwaggerBundle<T extends Configuration> implements Configur
         }
         environment.getObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
         environment.jersey().register(new SwaggerSerializers());
+        scanCache.setParallelism(getScanParallelism(configuration));
 
         // Register the resource that authenticate swagger login
+        Authenticator authenticator = getAuthenticator(configuration);
+        LoginConfiguration login = getLoginConfiguration(configuration);
+        LoginCacheConfiguration loginCache = getLoginCacheConfiguration(configuration);
+        if (authenticator != null) {
+            // Bounded so that a slow identity provider makes logins fail fast instead of piling up
+            authenticator.configureLogins(login.getTimeout(), environment.lifecycle()
+                    .executorService("swagger-login-%d")
+                    .minThreads(login.getThreads())
+                    .maxThreads(login.getThreads())
+                    .workQueue(new ArrayBlockingQueue<>(Math.max(login.getMaxQueuedLogins(), 1)))
+                    .build());
+            if (loginCache != null) authenticator.cacheLogins(loginCache, environment.metrics());
+        }
         Resource.Builder swaggerLoginBuilder = Resource
                 .builder()
                 .path(Constants.SWAGGER_LOGIN_PATH);
         try {
             swaggerLoginBuilder.addMethod("POST")
                     .produces(MediaType.TEXT_PLAIN)
-                    .handledBy(getAuthenticator(configuration), Authenticator.class.getMethod("getToken", String.class, String.class));
+                    .suspended(AsyncResponse.NO_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .handledBy(authenticator, Authenticator.class.getMethod("getTokenAsync", String.class, String.class, AsyncResponse.class));
         } catch (NoSuchMethodException e) {
             logger.error("get token method not found in Authenticator.class");
         }
         Resource swaggerLoginResource = swaggerLoginBuilder.build();
         environment.jersey().getResourceConfig().registerResources(swaggerLoginResource);
 
-        swaggerBundleConfigurations.forEach(swaggerConfig -> {
+        SwaggerSpecCache specCache = SwaggerSpecCache.from(environment.getApplicationContext().getServletContext());
+        specCache.setEncoders(getSpecEncoders(configuration));
+        // Swaggers that are warmed up are built in parallel in the background, independently of each other
+        int warmUps = (int) swaggerBundleConfigurations.stream().filter(SwaggerBundleConfiguration::isWarmUp).count();
+        final SwaggerWarmUpHealthCheck warmUpHealthCheck = new SwaggerWarmUpHealthCheck();
+        final ExecutorService warmUpExecutor = warmUps == 0 ? null : environment.lifecycle()
+                .executorService("swagger-warm-up-%d")
+                .minThreads(Math.min(warmUps, Runtime.getRuntime().availableProcessors()))
+                .maxThreads(Math.min(warmUps, Runtime.getRuntime().availableProcessors()))
+                .build();
+        if (warmUps > 0) environment.healthChecks().register("swagger", warmUpHealthCheck);
+        environment.admin().addTask(new SwaggerStartupProfileTask(startupProfile));
+        SwaggerInterner.INSTANCE.registerMetrics(environment.metrics());
+        boolean requireToken = swaggerBundleConfigurations.stream().anyMatch(SwaggerBundleConfiguration::isRequireToken);
+        TokenVerifier tokenVerifier = getTokenVerifier(configuration);
+        if (tokenVerifier == null && requireToken) {
+            throw new IllegalStateException("Provide a TokenVerifier to serve swagger definitions that require a token");
+        }
+
+        for (SwaggerBundleConfiguration swaggerConfig : swaggerBundleConfigurations) {
             ConfigurationHelper configurationHelper = new ConfigurationHelper(configuration, swaggerConfig);
+            SwaggerMetrics metrics = new SwaggerMetrics(environment.metrics(), configurationHelper.getMetricsName());
+            specCache.configure(configurationHelper.getSwaggerName(), swaggerConfig, metrics);
+            SwaggerSpecRegistry.Spec spec = new SwaggerSpecRegistry.Spec(configurationHelper.getSwaggerName(), swaggerConfig,
+                    metrics, configurationHelper.getSwaggerAPIListingPath(), configurationHelper.getSwaggerTagsPath());
+            specs.put(configurationHelper, spec);
+            long registrationStart = System.nanoTime();
             //Register asset bundle resources
             if (!assetBundleRegistered) {
                 new AssetsBundle(
@@ -92,6 +152,12 @@ public abstract class SwaggerBundle<T extends Configuration> implements Configur
                         configurationHelper.getSwaggerUriPath(),
                         null,
                         Constants.SWAGGER_ASSETS_NAME).run(environment);
+                // The same assets under a fingerprinted path, which is the one referenced by the Swagger UI page
+                assetsFingerprint = FingerprintedAssetsBundle.fingerprint(Constants.SWAGGER_RESOURCES_PATH);
+                new FingerprintedAssetsBundle(
+                        Constants.SWAGGER_RESOURCES_PATH,
+                        configurationHelper.getSwaggerUriPath() + "/" + assetsFingerprint,
+                        Constants.SWAGGER_ASSETS_NAME + "-" + assetsFingerprint).run(environment);
                 assetBundleRegistered = true;
             }
 
@@ -101,12 +167,14 @@ public abstract class SwaggerBundle<T extends Configuration> implements Configur
                     .path(configurationHelper.getHtmlResourcePath());
             swaggerHtmlBuilder.addMethod("GET")
                     .produces(MediaType.TEXT_HTML)
-                    .handledBy((Inflector<ContainerRequestContext, SwaggerView>) containerRequestContext -> new
-                            SwaggerView(configurationHelper.getBaseUrl(), configurationHelper.getSwaggerViewPath(), configurationHelper.getSwaggerLoginPathWithBaseUrl()));
+                    .handledBy(SwaggerPage.render(
+                            new SwaggerView(configurationHelper.getBaseUrl(), configurationHelper.getSwaggerViewPath(),
+                                    configurationHelper.getSwaggerLoginPathWithBaseUrl(), assetsFingerprint),
+                            isTemplatingEnabled(),
+                            specCache.getCacheControl(configurationHelper.getSwaggerName())));
             Resource swaggerHtmlResource = swaggerHtmlBuilder.build();
             environment.jersey().getResourceConfig().registerResources(swaggerHtmlResource);
 
-            BeanConfig beanConfig = setUpSwagger(swaggerConfig, configurationHelper.getBaseUrl());
             // Register the resource that returns the swagger Listing json
             Resource swaggerListingResource = Resource
                     .builder(ApiListingResource.class)
@@ -114,15 +182,286 @@ public abstract class SwaggerBundle<T extends Configuration> implements Configur
                     .build();
             environment.jersey().getResourceConfig().registerResources(swaggerListingResource);
 
-            applyApiListingFilter(beanConfig, configurationHelper);
-            environment.getApplicationContext().setAttribute(configurationHelper.getSwaggerName(), beanConfig.getSwagger());
+            // Register the resource that returns the swagger split per tag
+            Resource swaggerTagsResource = Resource
+                    .builder(ApiTagListingResource.class)
+                    .path(configurationHelper.getSwaggerTagsPath())
+                    .build();
+            environment.jersey().getResourceConfig().registerResources(swaggerTagsResource);
+            startupProfile.get(configurationHelper.getSwaggerName())
+                    .record(SwaggerStartupProfile.Phase.REGISTRATION, System.nanoTime() - registrationStart);
+
+            if (swaggerConfig.isWarmUp()) {
+                warmUpHealthCheck.register(configurationHelper.getSwaggerName(), specCache.warmUpInBackground(
+                        configurationHelper.getSwaggerName(), warmUpExecutor, () -> {
+                            buildSwagger(swaggerConfig, configurationHelper, spec, specCache);
+                            specCache.warmUp(configurationHelper.getSwaggerName());
+                        }));
+            } else {
+                buildSwagger(swaggerConfig, configurationHelper, spec, specCache);
+            }
+        }
+
+        // The listing resources find the swagger of a request in the registry instead of the servlet context
+        final SwaggerSpecRegistry registry = new SwaggerSpecRegistry(specCache, new ArrayList<>(specs.values()));
+        // Bounded so that documentation traffic gets 503s instead of piling up behind a slow scan
+        ListingConfiguration listing = getListingConfiguration(configuration);
+        final SwaggerListingExecutor listingExecutor = new SwaggerListingExecutor(environment.lifecycle()
+                .executorService("swagger-listing-%d")
+                .minThreads(listing.getThreads())
+                .maxThreads(listing.getThreads())
+                .workQueue(new ArrayBlockingQueue<>(Math.max(listing.getMaxQueuedRequests(), 1)))
+                .build(), listing.getTimeout());
+        environment.jersey().register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(registry).to(SwaggerSpecRegistry.class);
+                bind(listingExecutor).to(SwaggerListingExecutor.class);
+            }
         });
+        this.registry = registry;
+
+        if (requireToken) {
+            environment.jersey().register(new SwaggerTokenFilter(
+                    new VerifiedTokenCache(tokenVerifier, getTokenCacheConfiguration(configuration), environment.metrics()), registry));
+        }
+    }
+
+    private Swagger buildSwagger(SwaggerBundleConfiguration swaggerConfig, ConfigurationHelper configurationHelper,
+                                 SwaggerSpecRegistry.Spec spec, SwaggerSpecCache specCache) {
+        try (Timer.Context ignored = specCache.getMetrics(configurationHelper.getSwaggerName()).getScan().time()) {
+            Swagger swagger = null;
+            if (swaggerConfig.isUseGeneratedSpec()) {
+                long start = System.nanoTime();
+                swagger = loadGeneratedSwagger(swaggerConfig, configurationHelper);
+                long loaded = System.nanoTime();
+                swagger = SwaggerInterner.INSTANCE.intern(swagger);
+                startupProfile.get(configurationHelper.getSwaggerName())
+                        .record(SwaggerStartupProfile.Phase.LOAD, loaded - start);
+                startupProfile.get(configurationHelper.getSwaggerName())
+                        .record(SwaggerStartupProfile.Phase.INTERN, System.nanoTime() - loaded);
+            }
+            if (swagger == null) swagger = scanSwagger(swaggerConfig, configurationHelper);
+            spec.setSwagger(swaggerConfig.isCompactStorage() ? null : swagger);
+            specCache.publish(configurationHelper.getSwaggerName(), swagger);
+            if (swaggerConfig.isCompactStorage()) scanCache.compact(swaggerConfig.getResourcePackage());
+            logger.info("Built swagger definition of {}", startupProfile.get(configurationHelper.getSwaggerName()));
+            return swagger;
+        } catch (RuntimeException e) {
+            logger.error("Unable to build swagger definition for " + configurationHelper.getSwaggerName(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Updates the swagger of every configuration after resource classes have been registered or removed at runtime,
+     * for instance through {@code environment.jersey().getResourceConfig().registerResources(...)}. Only the given
+     * classes, and the classes bound to the same paths, are read again: the resource packages are not rescanned.
+     * <p/>
+     * Each configuration documenting the package of a class publishes a new swagger, which replaces the previous one
+     * and all its cached documents at once.
+     */
+    public synchronized void updateResources(Collection<Class<?>> added, Collection<Class<?>> removed) {
+        if (registry == null) throw new IllegalStateException("The bundle has not been run yet");
+        SwaggerSpecCache specCache = registry.getSpecCache();
+        for (Map.Entry<ConfigurationHelper, SwaggerSpecRegistry.Spec> spec : specs.entrySet()) {
+            ConfigurationHelper configurationHelper = spec.getKey();
+            SwaggerBundleConfiguration swaggerConfig = configurationHelper.getSwaggerBundleConfiguration();
+            BeanConfig beanConfig = setUpSwagger(swaggerConfig, configurationHelper.getBaseUrl());
+            Swagger swagger;
+            try (Timer.Context ignored = specCache.getMetrics(configurationHelper.getSwaggerName()).getScan().time()) {
+                SwaggerScanCache.ScannedPackage scannedPackage = scanCache.update(swaggerConfig.getResourcePackage(), added, removed, configurationHelper);
+                swagger = project(swaggerConfig, beanConfig, scannedPackage, configurationHelper);
+            }
+            spec.getValue().setSwagger(swaggerConfig.isCompactStorage() ? null : swagger);
+            specCache.publish(configurationHelper.getSwaggerName(), swagger);
+            if (swaggerConfig.isCompactStorage()) scanCache.compact(swaggerConfig.getResourcePackage());
+            logger.info("Updated swagger definition of {}", configurationHelper.getSwaggerName());
+        }
+    }
+
+    /**
+     * Scans the resource package of the given configuration and keeps only the endpoints allowed by its api listing filters
+     */
+    Swagger scanSwagger(SwaggerBundleConfiguration swaggerConfig, ConfigurationHelper configurationHelper) {
+        BeanConfig beanConfig = setUpSwagger(swaggerConfig, configurationHelper.getBaseUrl());
+        SwaggerScanCache.ScannedPackage scannedPackage = scanCache.get(swaggerConfig.getResourcePackage(), configurationHelper);
+        SwaggerStartupProfile.ConfigurationProfile profile = startupProfile.get(configurationHelper.getSwaggerName());
+        profile.recordScan(scannedPackage.getTimings());
+        long start = System.nanoTime();
+        Swagger swagger = project(swaggerConfig, beanConfig, scannedPackage, configurationHelper);
+        profile.record(SwaggerStartupProfile.Phase.FILTER, System.nanoTime() - start);
+        return swagger;
+    }
+
+    private static Swagger project(SwaggerBundleConfiguration swaggerConfig, BeanConfig beanConfig,
+                                   SwaggerScanCache.ScannedPackage scannedPackage, ConfigurationHelper configurationHelper) {
+        Swagger scanned = scannedPackage.getSwagger();
+
+        // The scanned swagger is shared with every configuration of the same resource package, so it is copied
+        // instead of being configured in place
+        Swagger swagger = new Swagger();
+        swagger.setSwagger(scanned.getSwagger());
+        swagger.setInfo(getInfo(swaggerConfig, scanned.getInfo()));
+        swagger.setTags(copy(scanned.getTags()));
+        swagger.setConsumes(copy(scanned.getConsumes()));
+        swagger.setProduces(copy(scanned.getProduces()));
+        swagger.setSecurity(copy(scanned.getSecurity()));
+        swagger.setPaths(scannedPackage.getAllowedPaths(configurationHelper.getApiListingFilters()));
+        swagger.setSecurityDefinitions(copy(scanned.getSecurityDefinitions()));
+        swagger.setDefinitions(copy(scanned.getDefinitions()));
+        swagger.setParameters(copy(scanned.getParameters()));
+        swagger.setResponses(copy(scanned.getResponses()));
+        swagger.setExternalDocs(scanned.getExternalDocs());
+        swagger.setVendorExtensions(copy(scanned.getVendorExtensions()));
+        swagger.setSchemes(copy(scanned.getSchemes()));
+        return configureLocation(swagger, beanConfig);
+    }
+
+    /**
+     * Applies the host, schemes and base path of the given configuration, the same way {@link BeanConfig} does after scanning
+     */
+    private static Swagger configureLocation(Swagger swagger, BeanConfig beanConfig) {
+        if (beanConfig.getSchemes() != null) {
+            for (String scheme : beanConfig.getSchemes()) swagger.scheme(Scheme.forValue(scheme));
+        }
+        if (StringUtils.isNotBlank(beanConfig.getHost())) swagger.setHost(beanConfig.getHost());
+        if (StringUtils.isNotBlank(beanConfig.getBasePath())) swagger.setBasePath(beanConfig.getBasePath());
+        return swagger;
+    }
+
+    /**
+     * Returns a copy of the scanned info overridden with the values of the given configuration, the same way
+     * {@link BeanConfig} builds it after scanning
+     */
+    private static Info getInfo(SwaggerBundleConfiguration configuration, Info scanned) {
+        Info info = new Info();
+        if (scanned != null) {
+            info.setTitle(scanned.getTitle());
+            info.setVersion(scanned.getVersion());
+            info.setDescription(scanned.getDescription());
+            info.setTermsOfService(scanned.getTermsOfService());
+            info.setContact(scanned.getContact());
+            info.setLicense(scanned.getLicense());
+            info.setVendorExtensions(copy(scanned.getVendorExtensions()));
+        }
+        if (StringUtils.isNotBlank(configuration.getDescription())) info.setDescription(configuration.getDescription());
+        if (StringUtils.isNotBlank(configuration.getTitle())) info.setTitle(configuration.getTitle());
+        if (StringUtils.isNotBlank(configuration.getVersion())) info.setVersion(configuration.getVersion());
+        if (StringUtils.isNotBlank(configuration.getTermsOfServiceUrl())) info.setTermsOfService(configuration.getTermsOfServiceUrl());
+        if (configuration.getContact() != null) info.setContact(new Contact().name(configuration.getContact()));
+        if (configuration.getLicense() != null && configuration.getLicenseUrl() != null) {
+            info.setLicense(new License().name(configuration.getLicense()).url(configuration.getLicenseUrl()));
+        }
+        return info;
+    }
+
+    private static <E> List<E> copy(List<E> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> map) {
+        return map == null ? null : new LinkedHashMap<>(map);
+    }
+
+    /**
+     * Loads the swagger written by the {@link GenerateSwaggerCommand}, or returns null if it is not on the classpath.
+     * The host, schemes and base path depend on where the application runs so they are taken from the current configuration
+     */
+    private Swagger loadGeneratedSwagger(SwaggerBundleConfiguration swaggerConfig, ConfigurationHelper configurationHelper) {
+        String resource = configurationHelper.getGeneratedSpecResource();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                logger.warn("Generated swagger definition {} not found, scanning {} instead", resource, swaggerConfig.getResourcePackage());
+                return null;
+            }
+            Swagger swagger = Json.mapper().readValue(in, Swagger.class);
+            swagger.setSchemes(null);
+            swagger.setHost(null);
+            return configureLocation(swagger, setUpSwagger(swaggerConfig, configurationHelper.getBaseUrl()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load generated swagger definition " + resource, e);
+        }
+    }
+
+    /**
+     * Returns how long building the swagger of each configuration took at startup
+     */
+    public SwaggerStartupProfile getStartupProfile() {
+        return startupProfile;
     }
 
     protected abstract List<SwaggerBundleConfiguration> getSwaggerBundleConfigurations(T configuration);
 
+    /**
+     * Override to return false to render the Swagger UI page without Freemarker. The bundle then does not add the
+     * {@link ViewBundle} it otherwise registers, which applications that do not use views of their own can do without.
+     * A customized {@code index.ftl} can only use the variables of {@link SwaggerView} in that case.
+     */
+    protected boolean isTemplatingEnabled() {
+        return true;
+    }
+
     protected abstract Authenticator getAuthenticator(T configuration);
 
+    /**
+     * Override to change the number of threads reading the resource classes of a scan, one per processor by default.
+     * Returning 1 reads them on the thread building the definition, which swagger extensions or model converters that
+     * are not thread safe may require
+     */
+    protected int getScanParallelism(T configuration) {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Override to change the timeout of the requests of the listing resources and the number of threads building
+     * their documents
+     */
+    protected ListingConfiguration getListingConfiguration(T configuration) {
+        return new ListingConfiguration();
+    }
+
+    /**
+     * Override to change the timeout of logins and the number of threads calling {@link Authenticator#login}
+     */
+    protected LoginConfiguration getLoginConfiguration(T configuration) {
+        return new LoginConfiguration();
+    }
+
+    /**
+     * Override to answer repeated logins with the same credentials from memory instead of calling the
+     * {@link Authenticator} every time, and to reject users after too many failed logins. Returns null by default,
+     * which disables the cache
+     */
+    protected LoginCacheConfiguration getLoginCacheConfiguration(T configuration) {
+        return null;
+    }
+
+    /**
+     * Override to check the tokens of the requests to the swagger of the configurations that require one
+     * (see {@link SwaggerBundleConfiguration#isRequireToken()}), usually the tokens issued by the {@link Authenticator}.
+     * Returns null by default, in which case no configuration may require a token
+     */
+    protected TokenVerifier getTokenVerifier(T configuration) {
+        return null;
+    }
+
+    /**
+     * Override to change how many verified tokens are kept in memory, and for how long, before the
+     * {@link TokenVerifier} is asked again
+     */
+    protected TokenCacheConfiguration getTokenCacheConfiguration(T configuration) {
+        return new TokenCacheConfiguration();
+    }
+
+    /**
+     * Returns the encoders, in order of preference, used to precompress swagger.json and swagger.yaml.
+     * Override it to add other content codings such as brotli
+     */
+    protected List<SpecEncoder> getSpecEncoders(T configuration) {
+        return Collections.singletonList(new GzipSpecEncoder());
+    }
+
     private BeanConfig setUpSwagger(SwaggerBundleConfiguration configuration, String baseUrl) {
         BeanConfig config = new BeanConfig();
 
@@ -181,58 +520,6 @@ public abstract class SwaggerBundle<T extends Configuration> implements Configur
             throw new IllegalStateException("Resource package needs to be specified for Swagger to correctly detect annotated resources");
         }
         config.setResourcePackage(configuration.getResourcePackage());
-        config.setScan(true);
         return config;
     }
-
-
-    private void applyApiListingFilter(BeanConfig beanConfig, ConfigurationHelper configurationHelper) {
-        LinkedHashMap<String, io.swagger.models.Path> allowedEndpoints = getAllowedEnpoints(beanConfig, configurationHelper);
-        beanConfig.getSwagger().setPaths(allowedEndpoints);
-    }
-
-    private LinkedHashMap<String, io.swagger.models.Path> getAllowedEnpoints(
-            BeanConfig beanConfig,
-            ConfigurationHelper configurationHelper) {
-
-        LinkedHashMap<String, io.swagger.models.Path> allowedEndpoints = new LinkedHashMap<>();
-        HashSet<String> resourceFilters = configurationHelper.getApiListingFilters();
-        Set<Class<?>> classes = beanConfig.classes();
-
-        for (Class<?> klazz : classes) {
-            HashSet<String> classFilters = getFilters(ReflectionUtils.getAnnotation(klazz, ApiListing.class));
-            Path apiPath = ReflectionUtils.getAnnotation(klazz, javax.ws.rs.Path.class);
-            Method methods[] = klazz.getMethods();
-
-            for (Method method : methods) {
-                boolean includeEndpoint = resourceFilters.isEmpty()
-                        || classFilters.stream().anyMatch(resourceFilters::contains)
-                        || getFilters(ReflectionUtils.getAnnotation(method, ApiListing.class)).stream().anyMatch(resourceFilters::contains);
-                if (includeEndpoint) {
-                    Path methodPath = ReflectionUtils.getAnnotation(method, Path.class);
-                    String operationPath = getPath(apiPath, methodPath, configurationHelper);
-                    io.swagger.models.Path path = beanConfig.getSwagger().getPaths().get(operationPath);
-                    if (!operationPath.equals("") && path != null) allowedEndpoints.put(operationPath, path);
-                }
-            }
-        }
-        return allowedEndpoints;
-    }
-
-    private HashSet<String> getFilters(ApiListing filter) {
-        if (filter == null) return new HashSet<>();
-        return new HashSet<>(Arrays.asList(filter.values()));
-    }
-
-    private String getPath(Path classLevelPath, Path methodLevelPath, ConfigurationHelper configurationHelper) {
-        if (classLevelPath == null && methodLevelPath == null) return "";
-        String classPath = "/";
-        String methodPath = "/";
-
-        if (classLevelPath != null) classPath = configurationHelper.stripAndNormalizeUrl(classLevelPath.value());
-        if (methodLevelPath != null) methodPath = configurationHelper.stripAndNormalizeUrl(methodLevelPath.value());
-
-        if (classPath.equals("/") && methodPath.equals("/")) return "";
-        return (classPath.equals("/") ? "" : classPath) + (methodPath.equals("/") ? "" : methodPath);
-    }
 }
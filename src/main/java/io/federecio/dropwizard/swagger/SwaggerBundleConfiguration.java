@@ -31,6 +31,8 @@ import java.util.Objects;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class SwaggerBundleConfiguration {
 
+    public static final int DEFAULT_FILTERED_SPEC_CACHE_SIZE = 64;
+
     /**
      * This is the only property that is required for Swagger to work correctly.
      * <p/>
@@ -80,6 +82,62 @@ public class SwaggerBundleConfiguration {
     @JsonProperty
     private String host;
 
+    /**
+     * Value of the Cache-Control header sent along with swagger.json and swagger.yaml. Clients are
+     * expected to revalidate their copy using the ETag and Last-Modified validators by default.
+     * Leave it empty to not send any Cache-Control header. Documents built by a filter that is not a
+     * {@link CacheableSpecFilter} are always sent with {@code private, no-cache}, since they may differ from one
+     * request to another
+     */
+    @JsonProperty
+    private String cacheControl = "no-cache";
+
+    /**
+     * Maximum number of filtered swagger documents, tag shards and indexes included, kept per swagger when the
+     * registered filter is a {@link CacheableSpecFilter}. Set it to 0 to filter every request
+     */
+    @JsonProperty
+    private int filteredSpecCacheSize = DEFAULT_FILTERED_SPEC_CACHE_SIZE;
+
+    /**
+     * Scan, filter and serialize this swagger on a background thread during startup instead of blocking
+     * the startup. Until it is ready its listing answers 503 and the "swagger" health check is unhealthy. If it
+     * cannot be built, its listing answers 500 and the health check reports the error
+     */
+    @JsonProperty
+    private boolean warmUp = false;
+
+    /**
+     * Load the swagger written at build time by the generate-swagger command (see {@link GenerateSwaggerCommand})
+     * instead of scanning the resource package at startup. The resource package is still scanned if the
+     * generated swagger cannot be found on the classpath
+     */
+    @JsonProperty
+    private boolean useGeneratedSpec = false;
+
+    /**
+     * Answer 401 to requests of swagger.json, swagger.yaml and the tag shards that do not carry a token accepted by
+     * the {@link TokenVerifier} of the bundle as an {@code Authorization: Bearer} header. Tokens sent in the URL are
+     * not accepted
+     */
+    @JsonProperty
+    private boolean requireToken = false;
+
+    /**
+     * Keep only the compressed JSON of the swagger instead of its object model, which is read back from it when a
+     * filter or a document that has not been serialized yet needs it
+     */
+    @JsonProperty
+    private boolean compactStorage = false;
+
+    /**
+     * The number of published JSON documents kept to answer requests of swagger.json with a {@code since} query
+     * parameter, the entity tag of the document the client holds, with a JSON Patch up to the latest one. None are
+     * kept by default
+     */
+    @JsonProperty
+    private int specHistorySize = 0;
+
     public String getResourcePackage() {
         return resourcePackage;
     }
@@ -176,6 +234,62 @@ public class SwaggerBundleConfiguration {
         this.host = host;
     }
 
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    public void setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    public int getFilteredSpecCacheSize() {
+        return filteredSpecCacheSize;
+    }
+
+    public void setFilteredSpecCacheSize(int filteredSpecCacheSize) {
+        this.filteredSpecCacheSize = filteredSpecCacheSize;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public boolean isUseGeneratedSpec() {
+        return useGeneratedSpec;
+    }
+
+    public void setUseGeneratedSpec(boolean useGeneratedSpec) {
+        this.useGeneratedSpec = useGeneratedSpec;
+    }
+
+    public boolean isRequireToken() {
+        return requireToken;
+    }
+
+    public void setRequireToken(boolean requireToken) {
+        this.requireToken = requireToken;
+    }
+
+    public boolean isCompactStorage() {
+        return compactStorage;
+    }
+
+    public void setCompactStorage(boolean compactStorage) {
+        this.compactStorage = compactStorage;
+    }
+
+    public int getSpecHistorySize() {
+        return specHistorySize;
+    }
+
+    public void setSpecHistorySize(int specHistorySize) {
+        this.specHistorySize = specHistorySize;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -192,12 +306,19 @@ public class SwaggerBundleConfiguration {
                 Objects.equals(securityConfigurations, that.securityConfigurations) &&
                 Objects.equals(host, that.host) &&
                 Objects.equals(uriPrefix, that.uriPrefix) &&
-                Objects.equals(apiListingFilters, that.apiListingFilters);
+                Objects.equals(apiListingFilters, that.apiListingFilters) &&
+                Objects.equals(cacheControl, that.cacheControl) &&
+                filteredSpecCacheSize == that.filteredSpecCacheSize &&
+                warmUp == that.warmUp &&
+                useGeneratedSpec == that.useGeneratedSpec &&
+                requireToken == that.requireToken &&
+                compactStorage == that.compactStorage &&
+                specHistorySize == that.specHistorySize;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(resourcePackage, title, version, description, termsOfServiceUrl, contact, license, licenseUrl, securityConfigurations, host, uriPrefix, apiListingFilters);
+        return Objects.hash(resourcePackage, title, version, description, termsOfServiceUrl, contact, license, licenseUrl, securityConfigurations, host, uriPrefix, apiListingFilters, cacheControl, filteredSpecCacheSize, warmUp, useGeneratedSpec, requireToken, compactStorage, specHistorySize);
     }
 
     @Override
@@ -215,6 +336,13 @@ public class SwaggerBundleConfiguration {
                 ", host='" + host + '\'' +
                 ", uriPrefix='" + uriPrefix + '\'' +
                 ", apiListingFilters=" + apiListingFilters +
+                ", cacheControl='" + cacheControl + '\'' +
+                ", filteredSpecCacheSize=" + filteredSpecCacheSize +
+                ", warmUp=" + warmUp +
+                ", useGeneratedSpec=" + useGeneratedSpec +
+                ", requireToken=" + requireToken +
+                ", compactStorage=" + compactStorage +
+                ", specHistorySize=" + specHistorySize +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,288 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.util.Json;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Replaces the models, properties, parameters, responses, operations and paths of the swaggers read by the bundle,
+ * as well as their descriptions, with a single instance of each distinct value in the JVM. Swaggers of configurations
+ * that scan different resource packages or load generated definitions then share the fragments they have in common
+ * instead of each keeping its own copy for the life of the process.
+ * <p/>
+ * Fragments are interned bottom-up, and a swagger whose JSON would change by being interned is left as it was read.
+ * Swaggers are only interned once they are final, right after being scanned, loaded or read for an update and
+ * before being published, and from then on their fragments may be shared with any other swagger. Neither the bundle
+ * nor the filters it applies may modify them: anything that needs a different fragment has to copy it first, as the
+ * {@link io.swagger.core.filter.SpecFilter} does with the operations and models it keeps. Interned fragments are
+ * only weakly held by the interner. The number of duplicates dropped
+ * and an estimate of the heap they retained are reported as {@code swagger.interning.duplicates} and
+ * {@code swagger.interning.saved-bytes}.
+ */
+class SwaggerInterner {
+
+    static final SwaggerInterner INSTANCE = new SwaggerInterner();
+
+    private static final Logger logger = LoggerFactory.getLogger(SwaggerInterner.class);
+
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> declaring = type; declaring != Object.class; declaring = declaring.getSuperclass()) {
+                for (Field field : declaring.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) continue;
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private final Interner<Object> fragments = Interners.newWeakInterner();
+    private final Interner<String> strings = Interners.newWeakInterner();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Interns the fragments of the given swagger in place and returns it, or returns a copy of it as it was read
+     * in the unlikely case interning changed its JSON
+     */
+    Swagger intern(Swagger swagger) {
+        if (swagger == null) return null;
+        byte[] read = toJson(swagger);
+        Pass pass = new Pass();
+        pass.internValues(swagger.getDefinitions(), pass::internModel);
+        pass.internValues(swagger.getParameters(), pass::internParameter);
+        pass.internValues(swagger.getResponses(), pass::internResponse);
+        pass.internValues(swagger.getPaths(), pass::internPath);
+        // equals() of a swagger model could ignore one of its fields, which would make an interned fragment
+        // serialize differently from the one it replaced
+        if (!Arrays.equals(read, toJson(swagger))) {
+            logger.warn("Interning changed the swagger definition, keeping it as read");
+            try {
+                return Json.mapper().readValue(read, Swagger.class);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read swagger definition", e);
+            }
+        }
+        duplicates.add(pass.duplicates);
+        savedBytes.add(pass.savedBytes);
+        return swagger;
+    }
+
+    /**
+     * Registers the gauges of the duplicates dropped by the interner since the JVM started
+     */
+    void registerMetrics(MetricRegistry metrics) {
+        metrics.gauge(MetricRegistry.name("swagger", "interning", "duplicates"), () -> (Gauge<Long>) duplicates::sum);
+        metrics.gauge(MetricRegistry.name("swagger", "interning", "saved-bytes"), () -> (Gauge<Long>) savedBytes::sum);
+    }
+
+    private static byte[] toJson(Swagger swagger) {
+        try {
+            return Json.mapper().writeValueAsBytes(swagger);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize swagger definition", e);
+        }
+    }
+
+    /**
+     * The interning of a single swagger, which only counts its duplicates once it is known to be kept
+     */
+    private class Pass {
+        private long duplicates;
+        private long savedBytes;
+
+        private Path internPath(Path path) {
+            for (Map.Entry<HttpMethod, Operation> operation : path.getOperationMap().entrySet()) {
+                path.set(operation.getKey().name().toLowerCase(Locale.ENGLISH), internOperation(operation.getValue()));
+            }
+            internElements(path.getParameters(), this::internParameter);
+            return internFragment(path);
+        }
+
+        private Operation internOperation(Operation operation) {
+            operation.setSummary(internString(operation.getSummary()));
+            operation.setDescription(internString(operation.getDescription()));
+            internElements(operation.getParameters(), this::internParameter);
+            internValues(operation.getResponses(), this::internResponse);
+            return internFragment(operation);
+        }
+
+        private Parameter internParameter(Parameter parameter) {
+            parameter.setDescription(internString(parameter.getDescription()));
+            if (parameter instanceof BodyParameter) {
+                BodyParameter body = (BodyParameter) parameter;
+                if (body.getSchema() != null) body.setSchema(internModel(body.getSchema()));
+            } else if (parameter instanceof SerializableParameter) {
+                SerializableParameter serializable = (SerializableParameter) parameter;
+                if (serializable.getItems() != null) serializable.setItems(internProperty(serializable.getItems()));
+            }
+            return internFragment(parameter);
+        }
+
+        private Response internResponse(Response response) {
+            response.setDescription(internString(response.getDescription()));
+            if (response.getResponseSchema() != null) response.setResponseSchema(internModel(response.getResponseSchema()));
+            return internFragment(response);
+        }
+
+        private Model internModel(Model model) {
+            model.setDescription(internString(model.getDescription()));
+            internValues(model.getProperties(), this::internProperty);
+            if (model instanceof ArrayModel) {
+                ArrayModel array = (ArrayModel) model;
+                if (array.getItems() != null) array.setItems(internProperty(array.getItems()));
+            } else if (model instanceof ComposedModel) {
+                internElements(((ComposedModel) model).getAllOf(), this::internModel);
+            }
+            return internFragment(model);
+        }
+
+        private Property internProperty(Property property) {
+            property.setDescription(internString(property.getDescription()));
+            if (property instanceof ObjectProperty) {
+                internValues(((ObjectProperty) property).getProperties(), this::internProperty);
+            } else if (property instanceof ArrayProperty) {
+                ArrayProperty array = (ArrayProperty) property;
+                if (array.getItems() != null) array.setItems(internProperty(array.getItems()));
+            } else if (property instanceof MapProperty) {
+                MapProperty map = (MapProperty) property;
+                if (map.getAdditionalProperties() != null) map.setAdditionalProperties(internProperty(map.getAdditionalProperties()));
+            }
+            return internFragment(property);
+        }
+
+        private <V> void internValues(Map<String, V> map, Function<V, V> intern) {
+            if (map == null) return;
+            for (Map.Entry<String, V> entry : map.entrySet()) {
+                if (entry.getValue() != null) entry.setValue(intern.apply(entry.getValue()));
+            }
+        }
+
+        private <E> void internElements(List<E> list, Function<E, E> intern) {
+            if (list == null) return;
+            list.replaceAll(element -> element == null ? null : intern.apply(element));
+        }
+
+        private String internString(String string) {
+            if (string == null) return null;
+            String interned = strings.intern(string);
+            if (interned != string) {
+                duplicates++;
+                savedBytes += estimateSize(string);
+            }
+            return interned;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <F> F internFragment(F fragment) {
+            Object interned = fragments.intern(fragment);
+            if (interned == fragment) return fragment;
+            if (interned.getClass() != fragment.getClass()) return fragment;
+            duplicates++;
+            savedBytes += estimateSize(fragment);
+            return (F) interned;
+        }
+    }
+
+    /**
+     * Returns a rough estimate of the heap freed by dropping the given duplicate, for a 64 bit JVM with compressed
+     * references: 12 bytes of object header, 4 bytes per reference, 8 byte alignment. Fragments are interned bottom-up,
+     * so the fragments and descriptions it references are shared with the interned instance and not counted.
+     */
+    private static long estimateSize(Object duplicate) {
+        if (duplicate instanceof String) return align(12 + 4 + 4) + align(16 + ((String) duplicate).length());
+        long shallow = 12;
+        long referenced = 0;
+        for (Field field : FIELDS.get(duplicate.getClass())) {
+            Class<?> fieldType = field.getType();
+            if (!fieldType.isPrimitive()) {
+                shallow += 4;
+                try {
+                    referenced += estimateContainerSize(field.get(duplicate));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            } else if (fieldType == long.class || fieldType == double.class) {
+                shallow += 8;
+            } else if (fieldType == boolean.class || fieldType == byte.class) {
+                shallow += 1;
+            } else {
+                shallow += fieldType == short.class || fieldType == char.class ? 2 : 4;
+            }
+        }
+        return align(shallow) + referenced;
+    }
+
+    // Maps and lists are owned by the fragment that holds them, unlike their keys and values
+    private static long estimateContainerSize(Object object) {
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            long size = align(12 + 4 * 8) + align(16 + 4L * Math.max(16, map.size() * 2)) + align(12 + 4 * 4) * map.size();
+            for (Object value : map.values()) size += estimateContainerSize(value);
+            return size;
+        }
+        if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            long size = align(12 + 4 * 4) + align(16 + 4L * Math.max(10, collection.size()));
+            for (Object element : collection) size += estimateContainerSize(element);
+            return size;
+        }
+        return 0;
+    }
+
+    private static long align(long size) {
+        return (size + 7) / 8 * 8;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.util.Duration;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the requests of the listing resources that cannot be answered from memory, see {@link ListingConfiguration}
+ */
+class SwaggerListingExecutor {
+
+    private final Executor executor;
+    private final Duration timeout;
+
+    SwaggerListingExecutor(Executor executor, Duration timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs the given listing, which resumes the given response, unless too many are already waiting. The response is
+     * answered with a 503 if the listing is rejected or does not resume it in time.
+     */
+    void execute(AsyncResponse response, SwaggerMetrics metrics, Runnable listing) {
+        response.setTimeoutHandler(timedOut -> {
+            metrics.getRejected().mark();
+            timedOut.resume(unavailable());
+        });
+        response.setTimeout(timeout.getQuantity(), timeout.getUnit());
+        try {
+            executor.execute(listing);
+        } catch (RejectedExecutionException e) {
+            metrics.getRejected().mark();
+            response.resume(unavailable());
+        }
+    }
+
+    private static Response unavailable() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, 1).build();
+    }
+}
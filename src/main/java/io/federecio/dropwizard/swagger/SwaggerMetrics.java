@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * The metrics of the swagger of a {@link SwaggerBundleConfiguration}, registered under
+ * {@code swagger.spec.<name>} (see {@link ConfigurationHelper#getMetricsName()}):
+ * <ul>
+ * <li>{@code scan}: time spent scanning, loading or updating the swagger</li>
+ * <li>{@code filter}: time spent applying the spec filter to the swagger</li>
+ * <li>{@code serialize}: time spent serializing documents into the cache</li>
+ * <li>{@code response-bytes.json} and {@code response-bytes.yaml}: size of the documents sent, before compression</li>
+ * <li>{@code cache.hits} and {@code cache.misses}: lookups of serialized documents</li>
+ * <li>{@code in-flight}: requests for documents being served, from memory or on the listing executor</li>
+ * <li>{@code rejected}: requests answered with a 503 because the pool building documents was busy for too long</li>
+ * </ul>
+ */
+public class SwaggerMetrics {
+
+    /**
+     * Used for swaggers that are not managed by the bundle, whose metrics are not reported anywhere
+     */
+    static final SwaggerMetrics UNREGISTERED = new SwaggerMetrics(new MetricRegistry(), "swagger.spec");
+
+    private final Timer scan;
+    private final Timer filter;
+    private final Timer serialize;
+    private final Histogram jsonResponseBytes;
+    private final Histogram yamlResponseBytes;
+    private final Meter cacheHits;
+    private final Meter cacheMisses;
+    private final Counter inFlight;
+    private final Meter rejected;
+
+    SwaggerMetrics(MetricRegistry registry, String name) {
+        this.scan = registry.timer(MetricRegistry.name(name, "scan"));
+        this.filter = registry.timer(MetricRegistry.name(name, "filter"));
+        this.serialize = registry.timer(MetricRegistry.name(name, "serialize"));
+        this.jsonResponseBytes = registry.histogram(MetricRegistry.name(name, "response-bytes", "json"));
+        this.yamlResponseBytes = registry.histogram(MetricRegistry.name(name, "response-bytes", "yaml"));
+        this.cacheHits = registry.meter(MetricRegistry.name(name, "cache", "hits"));
+        this.cacheMisses = registry.meter(MetricRegistry.name(name, "cache", "misses"));
+        this.inFlight = registry.counter(MetricRegistry.name(name, "in-flight"));
+        this.rejected = registry.meter(MetricRegistry.name(name, "rejected"));
+    }
+
+    public Timer getScan() {
+        return scan;
+    }
+
+    public Timer getFilter() {
+        return filter;
+    }
+
+    public Timer getSerialize() {
+        return serialize;
+    }
+
+    /**
+     * Returns the histogram of the size of the documents of the given type sent to clients, before compression
+     */
+    public Histogram getResponseBytes(String type) {
+        return "yaml".equalsIgnoreCase(type) ? yamlResponseBytes : jsonResponseBytes;
+    }
+
+    public Meter getCacheHits() {
+        return cacheHits;
+    }
+
+    public Meter getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public Counter getInFlight() {
+        return inFlight;
+    }
+
+    public Meter getRejected() {
+        return rejected;
+    }
+}
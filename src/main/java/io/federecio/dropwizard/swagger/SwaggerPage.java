@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import io.dropwizard.views.freemarker.FreemarkerViewRenderer;
+import org.glassfish.jersey.process.Inflector;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Serves the Swagger UI page of a {@link SwaggerBundleConfiguration}, which only depends on paths that are fixed at
+ * startup and is therefore rendered once and then served from memory with an ETag.
+ * <p/>
+ * The page is rendered from {@code index.ftl} with Freemarker, unless the bundle runs without templates (see
+ * {@link SwaggerBundle#isTemplatingEnabled()}), in which case the variables of the template are replaced directly.
+ */
+class SwaggerPage implements Inflector<ContainerRequestContext, Response> {
+
+    private static final String TEMPLATE = "index.ftl";
+
+    private final byte[] body;
+    private final EntityTag entityTag;
+    private final String cacheControl;
+
+    private SwaggerPage(byte[] body, String cacheControl) {
+        this.body = body;
+        this.entityTag = new EntityTag(Hashing.murmur3_128().hashBytes(body).toString());
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Renders the page of the given view, with Freemarker if templating is enabled
+     */
+    static SwaggerPage render(SwaggerView view, boolean templating, String cacheControl) throws IOException {
+        if (!templating) {
+            String page = Resources.toString(Resources.getResource(SwaggerView.class, TEMPLATE), Charsets.UTF_8)
+                    .replaceAll("<#--.*?-->\\R?", "")
+                    .replace("${swaggerAssetsPath}", view.getSwaggerAssetsPath())
+                    .replace("${contextPath}", view.getContextPath())
+                    .replace("${loginUrl}", view.getLoginUrl());
+            return new SwaggerPage(page.getBytes(Charsets.UTF_8), cacheControl);
+        }
+        FreemarkerViewRenderer renderer = new FreemarkerViewRenderer();
+        renderer.configure(ImmutableMap.of());
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        renderer.render(view, Locale.getDefault(), page);
+        return new SwaggerPage(page.toByteArray(), cacheControl);
+    }
+
+    @Override
+    public Response apply(ContainerRequestContext containerRequestContext) {
+        Response.ResponseBuilder builder = containerRequestContext.getRequest().evaluatePreconditions(entityTag);
+        if (builder == null) builder = Response.ok(body, MediaType.TEXT_HTML_TYPE.withCharset(Charsets.UTF_8.name()));
+        builder.tag(entityTag);
+        if (cacheControl != null) builder.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return builder.build();
+    }
+}
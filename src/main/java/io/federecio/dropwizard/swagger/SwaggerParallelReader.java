@@ -0,0 +1,270 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.jaxrs.Reader;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+import io.swagger.models.Tag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Reads resource classes with the swagger {@link Reader} on a fork-join pool, each class with a Reader of its own,
+ * and merges what was read in the order of the classes. The result is the same swagger a single Reader reading the
+ * classes one after another would build: same paths in the same order, same definitions and tags.
+ * <p/>
+ * The only thing a Reader takes from the classes it read before is the operation ids already in use, which it
+ * suffixes to keep them unique. Each Reader hands out placeholders instead and records which operations it had read
+ * at that point, so that the ids are assigned while merging exactly as a single Reader would have.
+ */
+class SwaggerParallelReader {
+
+    private static final int CLASSES_PER_TASK = 4;
+
+    // Real operation ids cannot contain it, so placeholders never collide with them
+    private static final String PLACEHOLDER = "\u0000";
+
+    private final ForkJoinPool pool;
+    private final Map<String, Long> classReadNanos = new LinkedHashMap<>();
+    private long modelNanos;
+
+    SwaggerParallelReader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Reads the given classes, which must be in the order {@link Reader#read(java.util.Set)} reads them
+     */
+    Swagger read(List<Class<?>> classes) {
+        List<ClassRead> reads = map(pool, classes, ClassRead::new);
+        Swagger swagger = new Swagger();
+        Map<String, Integer> operationIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ClassRead read : reads) {
+            read.mergeInto(swagger, operationIds);
+            classReadNanos.put(read.klazz.getName(), read.readNanos);
+            modelNanos += read.modelNanos;
+        }
+        return swagger;
+    }
+
+    /**
+     * Returns the Reader pass of each class, in the order they were merged
+     */
+    Map<String, Long> getClassReadNanos() {
+        return classReadNanos;
+    }
+
+    /**
+     * Returns the time spent resolving models, summed over the threads that read the classes
+     */
+    long getModelNanos() {
+        return modelNanos;
+    }
+
+    /**
+     * Applies the given function to every item on the given pool, and returns the results in the order of the items
+     */
+    static <T, R> List<R> map(ForkJoinPool pool, List<T> items, Function<T, R> function) {
+        return pool.invoke(new MapTask<>(items, function, Thread.currentThread().getContextClassLoader()));
+    }
+
+    private static class MapTask<T, R> extends RecursiveTask<List<R>> {
+        private final List<T> items;
+        private final Function<T, R> function;
+        private final ClassLoader classLoader;
+
+        private MapTask(List<T> items, Function<T, R> function, ClassLoader classLoader) {
+            this.items = items;
+            this.function = function;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (items.size() <= CLASSES_PER_TASK) {
+                // Models and extensions may be looked up through the class loader of the thread that started the scan
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try {
+                    List<R> results = new ArrayList<>(items.size());
+                    for (T item : items) results.add(function.apply(item));
+                    return results;
+                } finally {
+                    thread.setContextClassLoader(previous);
+                }
+            }
+            int half = items.size() / 2;
+            MapTask<T, R> tail = new MapTask<>(items.subList(half, items.size()), function, classLoader);
+            tail.fork();
+            List<R> results = new ArrayList<>(items.size());
+            results.addAll(new MapTask<>(items.subList(0, half), function, classLoader).compute());
+            results.addAll(tail.join());
+            return results;
+        }
+    }
+
+    /**
+     * What a Reader of its own read from a single class
+     */
+    private static class ClassRead {
+        private final Class<?> klazz;
+        private final Swagger swagger;
+        private final List<OperationIdRequest> operationIdRequests;
+        private final long readNanos;
+        private final long modelNanos;
+
+        private ClassRead(Class<?> klazz) {
+            ClassReader reader = new ClassReader();
+            long start = System.nanoTime();
+            ModelResolutionTimer.start();
+            try {
+                reader.read(klazz);
+            } finally {
+                this.modelNanos = ModelResolutionTimer.stop();
+            }
+            this.readNanos = System.nanoTime() - start;
+            this.klazz = klazz;
+            this.swagger = reader.getSwagger();
+            this.operationIdRequests = reader.operationIdRequests;
+        }
+
+        /**
+         * Adds what was read to the given swagger the way a single Reader would have, given the number of operations
+         * of each id the swagger already holds, which is kept up to date
+         */
+        private void mergeInto(Swagger merged, Map<String, Integer> operationIds) {
+            Map<String, String> resolved = new HashMap<>();
+            for (OperationIdRequest request : operationIdRequests) {
+                resolved.put(request.placeholder, request.resolve(merged, operationIds, resolved));
+            }
+            if (swagger.getTags() != null) {
+                for (Tag tag : swagger.getTags()) merged.tag(tag);
+            }
+            if (swagger.getPaths() != null) {
+                for (Map.Entry<String, Path> path : swagger.getPaths().entrySet()) {
+                    Path mergedPath = merged.getPath(path.getKey());
+                    for (Map.Entry<HttpMethod, Operation> operation : path.getValue().getOperationMap().entrySet()) {
+                        Operation read = operation.getValue();
+                        read.setOperationId(resolved.getOrDefault(read.getOperationId(), read.getOperationId()));
+                        if (mergedPath != null) {
+                            count(operationIds, mergedPath.getOperationMap().get(operation.getKey()), -1);
+                            mergedPath.set(operation.getKey().name().toLowerCase(Locale.ENGLISH), read);
+                        }
+                        count(operationIds, read, 1);
+                    }
+                    if (mergedPath == null) merged.path(path.getKey(), path.getValue());
+                }
+            }
+            if (swagger.getDefinitions() != null) {
+                for (Map.Entry<String, Model> definition : swagger.getDefinitions().entrySet()) {
+                    merged.model(definition.getKey(), definition.getValue());
+                }
+            }
+        }
+
+        private static void count(Map<String, Integer> operationIds, Operation operation, int delta) {
+            if (operation == null || operation.getOperationId() == null) return;
+            operationIds.merge(operation.getOperationId(), delta, Integer::sum);
+        }
+    }
+
+    /**
+     * A Reader that hands out placeholders for the operation ids it generates, see {@link OperationIdRequest}
+     */
+    private static class ClassReader extends Reader {
+        private final List<OperationIdRequest> operationIdRequests = new ArrayList<>();
+
+        private ClassReader() {
+            super(new Swagger());
+        }
+
+        @Override
+        protected String getOperationId(String operationId) {
+            String placeholder = PLACEHOLDER + operationIdRequests.size();
+            operationIdRequests.add(new OperationIdRequest(placeholder, operationId, getSwagger()));
+            return placeholder;
+        }
+    }
+
+    /**
+     * An operation id generated while reading a class, along with the operations read from that class so far
+     */
+    private static class OperationIdRequest {
+        private final String placeholder;
+        private final String operationId;
+        private final List<ReadOperation> read = new ArrayList<>();
+
+        private OperationIdRequest(String placeholder, String operationId, Swagger swagger) {
+            this.placeholder = placeholder;
+            this.operationId = operationId;
+            if (swagger.getPaths() == null) return;
+            for (Map.Entry<String, Path> path : swagger.getPaths().entrySet()) {
+                for (Map.Entry<HttpMethod, Operation> operation : path.getValue().getOperationMap().entrySet()) {
+                    read.add(new ReadOperation(path.getKey(), operation.getKey(), operation.getValue().getOperationId()));
+                }
+            }
+        }
+
+        /**
+         * Returns the id the Reader would have generated, suffixing it as long as it is in use
+         */
+        private String resolve(Swagger merged, Map<String, Integer> operationIds, Map<String, String> resolved) {
+            String id = operationId;
+            int counter = 0;
+            while (isUsed(id, merged, operationIds, resolved)) id = String.format("%s_%d", operationId, ++counter);
+            return id;
+        }
+
+        // The operations read from the class so far replace the ones of the same path and method in the merged swagger
+        private boolean isUsed(String id, Swagger merged, Map<String, Integer> operationIds, Map<String, String> resolved) {
+            int used = operationIds.getOrDefault(id, 0);
+            for (ReadOperation operation : read) {
+                String readId = resolved.getOrDefault(operation.operationId, operation.operationId);
+                if (id.equalsIgnoreCase(readId)) return true;
+                Path mergedPath = merged.getPath(operation.path);
+                Operation replaced = mergedPath == null ? null : mergedPath.getOperationMap().get(operation.method);
+                if (replaced != null && id.equalsIgnoreCase(replaced.getOperationId())) used--;
+            }
+            return used > 0;
+        }
+    }
+
+    private static class ReadOperation {
+        private final String path;
+        private final HttpMethod method;
+        private final String operationId;
+
+        private ReadOperation(String path, HttpMethod method, String operationId) {
+            this.path = path;
+            this.method = method;
+            this.operationId = operationId;
+        }
+    }
+}
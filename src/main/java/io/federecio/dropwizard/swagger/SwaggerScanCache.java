@@ -0,0 +1,532 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Suppliers;
+import io.swagger.annotations.SwaggerDefinition;
+import io.swagger.jaxrs.Reader;
+import io.swagger.jaxrs.config.BeanConfig;
+import io.swagger.jaxrs.config.ReaderListener;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Swagger;
+import io.swagger.models.Tag;
+import io.swagger.util.Json;
+import io.swagger.util.ReflectionUtils;
+
+import javax.ws.rs.Path;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Scans each resource package only once, no matter how many {@link SwaggerBundleConfiguration}s document it.
+ * <p/>
+ * The classpath scan, the {@link Reader} pass and the lookup of the {@link ApiListing} annotations of every
+ * endpoint are shared, and each configuration is then derived from them by keeping the endpoints allowed by
+ * its api listing filters. Resource classes registered or removed at runtime are merged into the existing scan
+ * by {@link #update}.
+ * <p/>
+ * Unless the parallelism is set to 1, the resource classes of a scan are read on a pool of their own by a
+ * {@link SwaggerParallelReader}, which builds the same swagger as reading them one after another.
+ */
+class SwaggerScanCache {
+
+    /**
+     * The order in which {@link Reader#read(Set)} reads the classes: superclasses first, then by name
+     */
+    private static final Comparator<Class<?>> READER_ORDER = (a, b) -> {
+        if (a.equals(b)) return 0;
+        if (a.isAssignableFrom(b)) return -1;
+        if (b.isAssignableFrom(a)) return 1;
+        return a.getName().compareTo(b.getName());
+    };
+
+    private final ConcurrentMap<String, Supplier<ScannedPackage>> packages = new ConcurrentHashMap<>();
+    private volatile int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Sets the number of threads reading the resource classes of the next scans, 1 to read them on the calling thread
+     */
+    void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1, was " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the scan of the given comma separated resource packages, scanning them if it is the first time they are requested.
+     * Concurrent callers of the same packages wait for a single scan.
+     */
+    ScannedPackage get(String resourcePackage, ConfigurationHelper configurationHelper) {
+        return packages.computeIfAbsent(normalize(resourcePackage), packageKey ->
+                Suppliers.memoize(() -> scan(packageKey, configurationHelper))).get();
+    }
+
+    /**
+     * Updates the scan of the given resource packages after resource classes have been registered or removed at
+     * runtime, and returns it. Classes outside of the resource packages are ignored. Only the added classes and the
+     * classes that share a path with the added or removed ones are read again.
+     */
+    synchronized ScannedPackage update(String resourcePackage, Collection<Class<?>> added, Collection<Class<?>> removed,
+                                       ConfigurationHelper configurationHelper) {
+        String packageKey = normalize(resourcePackage);
+        ScannedPackage updated = get(resourcePackage, configurationHelper).update(
+                inPackage(added, packageKey), inPackage(removed, packageKey), configurationHelper);
+        packages.put(packageKey, () -> updated);
+        return updated;
+    }
+
+    /**
+     * Replaces the scan of the given resource packages, if any, with one that only keeps the compressed JSON of its
+     * swagger, see {@link SwaggerBundleConfiguration#isCompactStorage()}. It is read back when the scan is projected
+     * or updated again.
+     */
+    synchronized void compact(String resourcePackage) {
+        String packageKey = normalize(resourcePackage);
+        Supplier<ScannedPackage> scanned = packages.get(packageKey);
+        if (scanned == null) return;
+        ScannedPackage compacted = scanned.get().compact(packageKey);
+        packages.put(packageKey, () -> compacted);
+    }
+
+    private static Set<Class<?>> inPackage(Collection<Class<?>> classes, String packageKey) {
+        Set<Class<?>> inPackage = new LinkedHashSet<>();
+        for (Class<?> klazz : classes) {
+            if (packageKey.isEmpty()) {
+                inPackage.add(klazz);
+                continue;
+            }
+            for (String pkg : packageKey.split(",")) {
+                if (klazz.getName().startsWith(pkg + ".")) inPackage.add(klazz);
+            }
+        }
+        return inPackage;
+    }
+
+    private static String normalize(String resourcePackage) {
+        Set<String> normalized = new TreeSet<>();
+        for (String pkg : resourcePackage.split(",")) {
+            if (!pkg.trim().isEmpty()) normalized.add(pkg.trim());
+        }
+        return String.join(",", normalized);
+    }
+
+    private ScannedPackage scan(String resourcePackage, ConfigurationHelper configurationHelper) {
+        long start = System.nanoTime();
+        BeanConfig beanConfig = new BeanConfig();
+        beanConfig.setResourcePackage(resourcePackage);
+        Set<Class<?>> classes = beanConfig.classes();
+        long scanned = System.nanoTime();
+
+        int threads = Math.min(parallelism, classes.size());
+        if (threads <= 1 || readsAtOnce(classes)) {
+            Map<String, Long> classReadNanos = new LinkedHashMap<>();
+            Swagger swagger;
+            long modelNanos;
+            ModelResolutionTimer.start();
+            try {
+                swagger = read(classes, classReadNanos);
+            } finally {
+                modelNanos = ModelResolutionTimer.stop();
+            }
+            long read = System.nanoTime();
+            swagger = SwaggerInterner.INSTANCE.intern(swagger);
+            ScanTimings timings = new ScanTimings(configurationHelper.getSwaggerName(), scanned - start,
+                    read - scanned, modelNanos, System.nanoTime() - read, classReadNanos);
+            return new ScannedPackage(swagger, classes, getListedOperations(classes, swagger, configurationHelper), timings);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Class<?>> sorted = new ArrayList<>(classes);
+            sorted.sort(READER_ORDER);
+            SwaggerParallelReader reader = new SwaggerParallelReader(pool);
+            Swagger swagger = reader.read(sorted);
+            long read = System.nanoTime();
+            swagger = SwaggerInterner.INSTANCE.intern(swagger);
+            ScanTimings timings = new ScanTimings(configurationHelper.getSwaggerName(), scanned - start,
+                    read - scanned, reader.getModelNanos(), System.nanoTime() - read, reader.getClassReadNanos());
+            Swagger listed = swagger;
+            List<ListedOperation> operations = new ArrayList<>();
+            SwaggerParallelReader.map(pool, new ArrayList<>(classes),
+                    klazz -> getListedOperations(Collections.singleton(klazz), listed, configurationHelper))
+                    .forEach(operations::addAll);
+            return new ScannedPackage(swagger, classes, operations, timings);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns whether the given classes configure the Reader itself, in which case they have to be read all together
+     */
+    private static boolean readsAtOnce(Set<Class<?>> classes) {
+        for (Class<?> klazz : classes) {
+            if (ReaderListener.class.isAssignableFrom(klazz) || klazz.getAnnotation(SwaggerDefinition.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the given classes the same way {@link Reader#read(Set)} does, one class at a time to measure each of them.
+     * Classes that configure the Reader itself have to be read along with all the others, in which case the whole
+     * set is read at once and no class is measured.
+     */
+    private static Swagger read(Set<Class<?>> classes, Map<String, Long> classReadNanos) {
+        Reader reader = new Reader(new Swagger());
+        if (readsAtOnce(classes)) return reader.read(classes);
+        Set<Class<?>> sorted = new TreeSet<>(READER_ORDER);
+        sorted.addAll(classes);
+        for (Class<?> klazz : sorted) {
+            long start = System.nanoTime();
+            reader.read(klazz);
+            classReadNanos.put(klazz.getName(), System.nanoTime() - start);
+        }
+        return reader.getSwagger();
+    }
+
+    private static List<ListedOperation> getListedOperations(Set<Class<?>> classes, Swagger swagger, ConfigurationHelper configurationHelper) {
+        List<ListedOperation> operations = new ArrayList<>();
+        for (Class<?> klazz : classes) {
+            Set<String> classFilters = getFilters(ReflectionUtils.getAnnotation(klazz, ApiListing.class));
+            Path apiPath = ReflectionUtils.getAnnotation(klazz, Path.class);
+
+            for (Method method : klazz.getMethods()) {
+                Path methodPath = ReflectionUtils.getAnnotation(method, Path.class);
+                String operationPath = getPath(apiPath, methodPath, configurationHelper);
+                if (!operationPath.equals("") && swagger.getPaths() != null && swagger.getPaths().containsKey(operationPath)) {
+                    operations.add(new ListedOperation(klazz, operationPath, classFilters,
+                            getFilters(ReflectionUtils.getAnnotation(method, ApiListing.class))));
+                }
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Returns the paths the methods of the given classes are bound to, whether or not they are documented
+     */
+    private static Set<String> getDeclaredPaths(Collection<Class<?>> classes, ConfigurationHelper configurationHelper) {
+        Set<String> paths = new HashSet<>();
+        for (Class<?> klazz : classes) {
+            Path apiPath = ReflectionUtils.getAnnotation(klazz, Path.class);
+            for (Method method : klazz.getMethods()) {
+                String operationPath = getPath(apiPath, ReflectionUtils.getAnnotation(method, Path.class), configurationHelper);
+                if (!operationPath.equals("")) paths.add(operationPath);
+            }
+        }
+        return paths;
+    }
+
+    private static Set<String> getFilters(ApiListing filter) {
+        if (filter == null) return Collections.emptySet();
+        return new HashSet<>(Arrays.asList(filter.values()));
+    }
+
+    private static String getPath(Path classLevelPath, Path methodLevelPath, ConfigurationHelper configurationHelper) {
+        if (classLevelPath == null && methodLevelPath == null) return "";
+        String classPath = "/";
+        String methodPath = "/";
+
+        if (classLevelPath != null) classPath = configurationHelper.stripAndNormalizeUrl(classLevelPath.value());
+        if (methodLevelPath != null) methodPath = configurationHelper.stripAndNormalizeUrl(methodLevelPath.value());
+
+        if (classPath.equals("/") && methodPath.equals("/")) return "";
+        return (classPath.equals("/") ? "" : classPath) + (methodPath.equals("/") ? "" : methodPath);
+    }
+
+    static class ScannedPackage {
+        private final Swagger swagger;
+        private final SerializedSpec compact;
+        private final Set<Class<?>> classes;
+        private final List<ListedOperation> operations;
+        private final ScanTimings timings;
+        private volatile SoftReference<Swagger> rehydrated = new SoftReference<>(null);
+
+        private ScannedPackage(Swagger swagger, Set<Class<?>> classes, List<ListedOperation> operations, ScanTimings timings) {
+            this.swagger = swagger;
+            this.compact = null;
+            this.classes = classes;
+            this.operations = operations;
+            this.timings = timings;
+        }
+
+        private ScannedPackage(ScannedPackage scanned, SerializedSpec compact) {
+            this.swagger = null;
+            this.compact = compact;
+            this.classes = scanned.classes;
+            this.operations = scanned.operations;
+            this.timings = scanned.timings;
+        }
+
+        /**
+         * Returns this scan holding only the compressed JSON of its swagger
+         */
+        private ScannedPackage compact(String packageKey) {
+            if (compact != null) return this;
+            try {
+                return new ScannedPackage(this, new SerializedSpec("scan|" + packageKey, Json.mapper().writeValueAsBytes(swagger), 0).compact());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unable to serialize swagger definition", e);
+            }
+        }
+
+        /**
+         * Returns a new scan with the given classes added and removed, leaving this one untouched. The paths bound by
+         * these classes are rebuilt by reading them along with the other classes bound to the same paths, every other
+         * path is kept as is. Definitions and tags only used by the rebuilt paths are dropped when no longer used.
+         */
+        private ScannedPackage update(Set<Class<?>> added, Set<Class<?>> removed, ConfigurationHelper configurationHelper) {
+            if (added.isEmpty() && removed.isEmpty()) return this;
+
+            Set<Class<?>> updatedClasses = new LinkedHashSet<>(classes);
+            updatedClasses.removeAll(removed);
+            updatedClasses.addAll(added);
+
+            Set<String> touchedPaths = getDeclaredPaths(added, configurationHelper);
+            for (ListedOperation operation : operations) {
+                if (removed.contains(operation.klazz) || added.contains(operation.klazz)) touchedPaths.add(operation.path);
+            }
+            Set<Class<?>> reread = new LinkedHashSet<>(added);
+            for (ListedOperation operation : operations) {
+                if (touchedPaths.contains(operation.path) && updatedClasses.contains(operation.klazz)) reread.add(operation.klazz);
+            }
+            Swagger current = getSwagger();
+            Swagger read = read(reread, current, touchedPaths);
+
+            Swagger updated = new Swagger();
+            updated.setSwagger(current.getSwagger());
+            updated.setInfo(current.getInfo());
+            updated.setHost(current.getHost());
+            updated.setBasePath(current.getBasePath());
+            updated.setSchemes(current.getSchemes());
+            updated.setConsumes(current.getConsumes());
+            updated.setProduces(current.getProduces());
+            updated.setSecurity(current.getSecurity());
+            updated.setSecurityDefinitions(merge(current.getSecurityDefinitions(), read.getSecurityDefinitions()));
+            updated.setParameters(current.getParameters());
+            updated.setResponses(current.getResponses());
+            updated.setExternalDocs(current.getExternalDocs());
+            updated.setVendorExtensions(current.getVendorExtensions());
+
+            Map<String, io.swagger.models.Path> paths = new LinkedHashMap<>();
+            if (current.getPaths() != null) paths.putAll(current.getPaths());
+            paths.keySet().removeAll(touchedPaths);
+            if (read.getPaths() != null) {
+                read.getPaths().forEach((path, item) -> {
+                    if (touchedPaths.contains(path)) paths.put(path, item);
+                });
+            }
+            updated.setPaths(paths);
+
+            Map<String, Model> definitions = merge(current.getDefinitions(), read.getDefinitions());
+            updated.setDefinitions(definitions);
+            if (definitions != null) {
+                Set<String> unused = SwaggerTagShards.getReferencedDefinitions(current);
+                unused.removeAll(SwaggerTagShards.getReferencedDefinitions(updated));
+                if (read.getDefinitions() != null) unused.removeAll(read.getDefinitions().keySet());
+                definitions.keySet().removeAll(unused);
+            }
+
+            Set<String> unusedTags = getOperationTags(current);
+            unusedTags.removeAll(getOperationTags(updated));
+            List<Tag> tags = new ArrayList<>();
+            Set<String> tagNames = new HashSet<>();
+            for (List<Tag> source : Arrays.asList(current.getTags(), read.getTags())) {
+                if (source == null) continue;
+                for (Tag tag : source) {
+                    if (!unusedTags.contains(tag.getName()) && tagNames.add(tag.getName())) tags.add(tag);
+                }
+            }
+            updated.setTags(tags.isEmpty() ? null : tags);
+
+            List<ListedOperation> updatedOperations = new ArrayList<>();
+            for (ListedOperation operation : operations) {
+                if (!removed.contains(operation.klazz) && !reread.contains(operation.klazz)) updatedOperations.add(operation);
+            }
+            updatedOperations.addAll(getListedOperations(reread, updated, configurationHelper));
+            return new ScannedPackage(updated, updatedClasses, updatedOperations, null);
+        }
+
+        /**
+         * Reads the given classes again into a swagger holding the operations of the paths that are kept, so that the
+         * Reader suffixes the operation ids already in use by these operations as a full scan would, and returns the
+         * touched paths that were read. Kept operations keep their ids, and only operations of the added classes are
+         * renamed, even when a full scan would have read them before the kept ones.
+         */
+        private static Swagger read(Set<Class<?>> classes, Swagger current, Set<String> touchedPaths) {
+            Map<String, io.swagger.models.Path> kept = new LinkedHashMap<>();
+            if (current.getPaths() != null) {
+                current.getPaths().forEach((name, path) -> {
+                    if (touchedPaths.contains(name)) return;
+                    // The Reader adds the operations of the classes read again to these copies, never to the kept paths
+                    io.swagger.models.Path copy = new io.swagger.models.Path();
+                    path.getOperationMap().forEach((method, operation) ->
+                            copy.set(method.name().toLowerCase(Locale.ENGLISH), operation));
+                    kept.put(name, copy);
+                });
+            }
+            Set<Class<?>> sorted = new TreeSet<>(READER_ORDER);
+            sorted.addAll(classes);
+            Swagger read = new Reader(new Swagger().paths(kept)).read(sorted);
+            if (read.getPaths() != null) read.getPaths().keySet().retainAll(touchedPaths);
+            return SwaggerInterner.INSTANCE.intern(read);
+        }
+
+        /**
+         * Returns the unfiltered swagger read from the resource package, which must not be modified
+         */
+        Swagger getSwagger() {
+            if (swagger != null) return swagger;
+            Swagger read = rehydrated.get();
+            if (read == null) {
+                try {
+                    read = Json.mapper().readValue(compact.getBody(), Swagger.class);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to read swagger definition", e);
+                }
+                rehydrated = new SoftReference<>(read);
+            }
+            return read;
+        }
+
+        /**
+         * Returns how long the scan took, or null if this scan was updated at runtime
+         */
+        ScanTimings getTimings() {
+            return timings;
+        }
+
+        /**
+         * Returns the paths of the endpoints allowed by the given api listing filters, all of them if there is none
+         */
+        LinkedHashMap<String, io.swagger.models.Path> getAllowedPaths(Set<String> resourceFilters) {
+            LinkedHashMap<String, io.swagger.models.Path> allowedEndpoints = new LinkedHashMap<>();
+            Map<String, io.swagger.models.Path> paths = getSwagger().getPaths();
+            for (ListedOperation operation : operations) {
+                boolean includeEndpoint = resourceFilters.isEmpty()
+                        || operation.classFilters.stream().anyMatch(resourceFilters::contains)
+                        || operation.methodFilters.stream().anyMatch(resourceFilters::contains);
+                if (includeEndpoint) allowedEndpoints.put(operation.path, paths.get(operation.path));
+            }
+            return allowedEndpoints;
+        }
+    }
+
+    /**
+     * The phases of a scan, in nanoseconds, and the swagger it was run for
+     */
+    static class ScanTimings {
+        private final String swaggerName;
+        private final long scanNanos;
+        private final long readNanos;
+        private final long modelNanos;
+        private final long internNanos;
+        private final Map<String, Long> classReadNanos;
+
+        private ScanTimings(String swaggerName, long scanNanos, long readNanos, long modelNanos, long internNanos,
+                            Map<String, Long> classReadNanos) {
+            this.swaggerName = swaggerName;
+            this.scanNanos = scanNanos;
+            this.readNanos = readNanos;
+            this.modelNanos = modelNanos;
+            this.internNanos = internNanos;
+            this.classReadNanos = classReadNanos;
+        }
+
+        String getSwaggerName() {
+            return swaggerName;
+        }
+
+        long getScanNanos() {
+            return scanNanos;
+        }
+
+        long getReadNanos() {
+            return readNanos;
+        }
+
+        /**
+         * Returns the time spent resolving models, summed over the threads that read the resource classes
+         */
+        long getModelNanos() {
+            return modelNanos;
+        }
+
+        long getInternNanos() {
+            return internNanos;
+        }
+
+        /**
+         * Returns the Reader pass of each resource class, empty if they were read at once
+         */
+        Map<String, Long> getClassReadNanos() {
+            return classReadNanos;
+        }
+    }
+
+    private static <V> Map<String, V> merge(Map<String, V> current, Map<String, V> read) {
+        if (read == null || read.isEmpty()) return current == null ? null : new LinkedHashMap<>(current);
+        Map<String, V> merged = current == null ? new LinkedHashMap<>() : new LinkedHashMap<>(current);
+        merged.putAll(read);
+        return merged;
+    }
+
+    private static Set<String> getOperationTags(Swagger swagger) {
+        Set<String> tags = new HashSet<>();
+        if (swagger.getPaths() == null) return tags;
+        for (io.swagger.models.Path path : swagger.getPaths().values()) {
+            for (Operation operation : path.getOperations()) {
+                if (operation.getTags() != null) tags.addAll(operation.getTags());
+            }
+        }
+        return tags;
+    }
+
+    private static class ListedOperation {
+        private final Class<?> klazz;
+        private final String path;
+        private final Set<String> classFilters;
+        private final Set<String> methodFilters;
+
+        private ListedOperation(Class<?> klazz, String path, Set<String> classFilters, Set<String> methodFilters) {
+            this.klazz = klazz;
+            this.path = path;
+            this.classFilters = classFilters;
+            this.methodFilters = methodFilters;
+        }
+    }
+}
@@ -0,0 +1,607 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.servlet.ServletContext;
+import javax.ws.rs.core.StreamingOutput;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the serialized JSON and YAML documents of every Swagger definition so that they are only built
+ * once per scan instead of on every request to the {@link ApiListingResource}.
+ * <p/>
+ * Entries are keyed by the swagger name (see {@link ConfigurationHelper#getSwaggerName()}) and the
+ * requested type, and are rebuilt whenever the underlying {@link Swagger} instance changes. The time at
+ * which a {@link Swagger} instance is first seen is used as the Last-Modified date of all its variants.
+ * <p/>
+ * The swaggers of configurations with compact storage are not kept: only their compressed JSON is, and
+ * a {@link Swagger} is read back from it when one is needed, for instance by a filter. The last few of
+ * these are kept in memory until the garbage collector needs it.
+ */
+public class SwaggerSpecCache {
+
+    static final String ATTRIBUTE_NAME = SwaggerSpecCache.class.getName();
+
+    private static final int MAX_REHYDRATED_SWAGGERS = 4;
+
+    private final ConcurrentMap<String, SpecEntry> specs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SwaggerBundleConfiguration> configurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SwaggerMetrics> metrics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SwaggerSpecHistory> histories = new ConcurrentHashMap<>();
+    private final Set<String> warmingUp = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private volatile boolean prettyPrint = false;
+    private volatile List<SpecEncoder> encoders = Collections.singletonList(new GzipSpecEncoder());
+    private final Cache<SerializedSpec, Swagger> rehydrated = CacheBuilder.newBuilder()
+            .maximumSize(MAX_REHYDRATED_SWAGGERS)
+            .softValues()
+            .build();
+
+    /**
+     * Returns the cache stored in the given {@link ServletContext}, creating it the first time it is needed
+     */
+    public static SwaggerSpecCache from(ServletContext servletContext) {
+        SwaggerSpecCache cache = (SwaggerSpecCache) servletContext.getAttribute(ATTRIBUTE_NAME);
+        if (cache == null) {
+            synchronized (SwaggerSpecCache.class) {
+                cache = (SwaggerSpecCache) servletContext.getAttribute(ATTRIBUTE_NAME);
+                if (cache == null) {
+                    cache = new SwaggerSpecCache();
+                    servletContext.setAttribute(ATTRIBUTE_NAME, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Registers the bundle configuration of the given swagger name, which holds its caching settings, and its metrics
+     */
+    public void configure(String swaggerName, SwaggerBundleConfiguration configuration, SwaggerMetrics metrics) {
+        configurations.put(swaggerName, configuration);
+        this.metrics.put(swaggerName, metrics);
+    }
+
+    /**
+     * Returns the metrics of the given swagger name, which are not reported if the bundle does not manage it
+     */
+    public SwaggerMetrics getMetrics(String swaggerName) {
+        return metrics.getOrDefault(swaggerName, SwaggerMetrics.UNREGISTERED);
+    }
+
+    /**
+     * Registers a freshly scanned swagger, dropping every variant serialized from the previous one
+     */
+    public void publish(String swaggerName, Swagger swagger) {
+        SwaggerBundleConfiguration configuration = configurations.get(swaggerName);
+        SpecEntry entry;
+        if (configuration != null && configuration.isCompactStorage()) {
+            long lastModified = now();
+            SerializedSpec json = new SerializedSpec(swaggerName + "|json", serialize(swaggerName, swagger, "json"), lastModified).compact();
+            entry = new SpecEntry(json, lastModified, () -> rehydrate(json), getFilteredSpecCacheSize(swaggerName));
+        } else {
+            entry = new SpecEntry(swagger, getFilteredSpecCacheSize(swaggerName));
+        }
+        specs.put(swaggerName, entry);
+        if (configuration != null && configuration.getSpecHistorySize() > 0) {
+            histories.computeIfAbsent(swaggerName, key -> new SwaggerSpecHistory(configuration.getSpecHistorySize()))
+                    .record(getVariant(swaggerName, entry, "json", "json", entry.swagger));
+        }
+        warmingUp.remove(swaggerName);
+        failed.remove(swaggerName);
+    }
+
+    /**
+     * Returns the JSON Patch from the JSON document of the given entity tag to the latest published one, or null if
+     * the history of the given swagger name does not hold that document anymore
+     */
+    public SerializedSpec getPatch(String swaggerName, String since) {
+        SwaggerSpecHistory history = histories.get(swaggerName);
+        return history == null ? null : history.getPatch(since);
+    }
+
+    /**
+     * Returns the published swagger of the given name, reading it back from its compressed JSON if it has
+     * compact storage, or null if none has been published. Its fragments are shared with other swaggers, so it
+     * must be copied before being modified
+     */
+    public Swagger getSwagger(String swaggerName) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : entry.swagger.get();
+    }
+
+    /**
+     * Builds the swagger of the given name in the background with the given task, which publishes it. The swagger is
+     * reported as warming up until it is published, and as failed if the task throws before publishing it
+     */
+    public Future<?> warmUpInBackground(String swaggerName, ExecutorService executor, Runnable build) {
+        warmingUp.add(swaggerName);
+        failed.remove(swaggerName);
+        try {
+            return executor.submit(() -> {
+                try {
+                    build.run();
+                } catch (RuntimeException | Error e) {
+                    warmUpFailed(swaggerName);
+                    throw e;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            warmUpFailed(swaggerName);
+            throw e;
+        }
+    }
+
+    private void warmUpFailed(String swaggerName) {
+        // A swagger published before the task failed, e.g. while precompressing it, can still be served
+        if (warmingUp.remove(swaggerName)) failed.add(swaggerName);
+    }
+
+    public boolean isWarmingUp(String swaggerName) {
+        return !warmingUp.isEmpty() && warmingUp.contains(swaggerName);
+    }
+
+    /**
+     * Returns whether the background build of the given swagger name failed, in which case it will not be published
+     * unless the resources are updated
+     */
+    public boolean isWarmUpFailed(String swaggerName) {
+        return !failed.isEmpty() && failed.contains(swaggerName);
+    }
+
+    /**
+     * Serializes and precompresses every unfiltered document and tag shard of the given swagger ahead of the first request
+     */
+    public void warmUp(String swaggerName, Swagger swagger) {
+        warmUp(swaggerName, getEntry(swaggerName, swagger));
+    }
+
+    /**
+     * Same as {@link #warmUp(String, Swagger)} for the published swagger of the given name, if any
+     */
+    public void warmUp(String swaggerName) {
+        SpecEntry entry = specs.get(swaggerName);
+        if (entry != null) warmUp(swaggerName, entry);
+    }
+
+    private void warmUp(String swaggerName, SpecEntry entry) {
+        Map<String, Swagger> shards = entry.shards.get();
+        for (String type : new String[]{"json", "yaml"}) {
+            SerializedSpec spec = getVariant(swaggerName, entry, type, type, entry.swagger);
+            encoders.forEach(spec::encodedWith);
+            getVariant(swaggerName, entry, getTagIndexVariant(type), type, () -> SwaggerTagShards.index(shards, type));
+            for (Map.Entry<String, Swagger> shard : shards.entrySet()) {
+                SerializedSpec serialized = getVariant(swaggerName, entry, getTagShardVariant(type, shard.getKey()), type, shard::getValue);
+                encoders.forEach(serialized::encodedWith);
+            }
+        }
+    }
+
+    /**
+     * Returns the serialized document of the given swagger, serializing it only if it has not been done
+     * yet for this exact {@link Swagger} instance
+     */
+    public SerializedSpec get(String swaggerName, String type, Swagger swagger) {
+        return getVariant(swaggerName, getEntry(swaggerName, swagger), type, type, () -> swagger);
+    }
+
+    /**
+     * Returns the serialized document of the published swagger of the given name, or null if none has been published
+     */
+    public SerializedSpec get(String swaggerName, String type) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : getVariant(swaggerName, entry, type, type, entry.swagger);
+    }
+
+    /**
+     * Returns the serialized document of the given swagger filtered for the given filter key (see
+     * {@link CacheableSpecFilter}). The filter is only run when that key is not cached yet for this exact
+     * {@link Swagger} instance, least recently used keys are evicted once the cache is full.
+     */
+    public SerializedSpec get(String swaggerName, String type, String filterKey, Swagger swagger, Supplier<Swagger> filter) {
+        return getFiltered(swaggerName, getEntry(swaggerName, swagger), type, type, filterKey, filter);
+    }
+
+    /**
+     * Same as {@link #get(String, String, String, Swagger, Supplier)} for the published swagger of the given name,
+     * or null if none has been published
+     */
+    public SerializedSpec get(String swaggerName, String type, String filterKey, Supplier<Swagger> filter) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : getFiltered(swaggerName, entry, type, type, filterKey, filter);
+    }
+
+    /**
+     * Returns the serialized index of the tag shards of the published swagger of the given name, split from the
+     * swagger filtered for the given filter key. The given shards are only split when that key is not cached yet, in
+     * the same cache as the filtered documents
+     */
+    public SerializedSpec getTagIndex(String swaggerName, String type, String filterKey, Supplier<Map<String, Swagger>> shards) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : getFiltered(swaggerName, entry, getTagIndexVariant(type), type, filterKey,
+                () -> SwaggerTagShards.index(shards.get(), type));
+    }
+
+    /**
+     * Same as {@link #getTagIndex(String, String, String, Supplier)} for the given swagger
+     */
+    public SerializedSpec getTagIndex(String swaggerName, String type, String filterKey, Swagger swagger,
+                                      Supplier<Map<String, Swagger>> shards) {
+        return getFiltered(swaggerName, getEntry(swaggerName, swagger), getTagIndexVariant(type), type, filterKey,
+                () -> SwaggerTagShards.index(shards.get(), type));
+    }
+
+    /**
+     * Returns the serialized shard of the given tag of the published swagger of the given name, split from the swagger
+     * filtered for the given filter key, or null if none has been published or no operation has that tag once filtered
+     */
+    public SerializedSpec getTagShard(String swaggerName, String type, String tag, String filterKey,
+                                      Supplier<Map<String, Swagger>> shards) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : getFiltered(swaggerName, entry, getTagShardVariant(type, tag), type, filterKey,
+                () -> shards.get().get(tag));
+    }
+
+    /**
+     * Same as {@link #getTagShard(String, String, String, String, Supplier)} for the given swagger
+     */
+    public SerializedSpec getTagShard(String swaggerName, String type, String tag, String filterKey, Swagger swagger,
+                                      Supplier<Map<String, Swagger>> shards) {
+        return getFiltered(swaggerName, getEntry(swaggerName, swagger), getTagShardVariant(type, tag), type, filterKey,
+                () -> shards.get().get(tag));
+    }
+
+    // A document that does not exist once filtered is not cached, and null is returned
+    private SerializedSpec getFiltered(String swaggerName, SpecEntry entry, String document, String type, String filterKey,
+                                       Supplier<?> filter) {
+        String variant = document + "|" + filterKey;
+        SwaggerMetrics metrics = getMetrics(swaggerName);
+        if (entry.filtered != null) {
+            SerializedSpec cached = entry.filtered.getIfPresent(variant);
+            if (cached != null) {
+                metrics.getCacheHits().mark();
+                return cached;
+            }
+        }
+        metrics.getCacheMisses().mark();
+        if (entry.filtered == null) {
+            Object filtered = filter.get();
+            return filtered == null ? null : entry.serialized(swaggerName + "|" + variant, serialize(swaggerName, filtered, type));
+        }
+        try {
+            return entry.filtered.get(variant, () -> {
+                Object filtered = filter.get();
+                if (filtered == null) throw new MissingDocumentException();
+                return entry.serialized(swaggerName + "|" + variant, serialize(swaggerName, filtered, type));
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof MissingDocumentException) return null;
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Unable to filter swagger definition", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the serialized index of the tag shards of the given swagger (see {@link SwaggerTagShards}),
+     * splitting the swagger only the first time any of its shards is requested
+     */
+    public SerializedSpec getTagIndex(String swaggerName, String type, Swagger swagger) {
+        return getTagIndex(swaggerName, getEntry(swaggerName, swagger), type);
+    }
+
+    /**
+     * Returns the serialized index of the tag shards of the published swagger of the given name, or null if none has
+     * been published
+     */
+    public SerializedSpec getTagIndex(String swaggerName, String type) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : getTagIndex(swaggerName, entry, type);
+    }
+
+    private SerializedSpec getTagIndex(String swaggerName, SpecEntry entry, String type) {
+        return getVariant(swaggerName, entry, getTagIndexVariant(type), type, () -> SwaggerTagShards.index(entry.shards.get(), type));
+    }
+
+    /**
+     * Returns the serialized shard of the given tag of the given swagger, or null if no operation has that tag
+     */
+    public SerializedSpec getTagShard(String swaggerName, String type, String tag, Swagger swagger) {
+        return getTagShard(swaggerName, getEntry(swaggerName, swagger), type, tag);
+    }
+
+    /**
+     * Returns the serialized shard of the given tag of the published swagger of the given name, or null if none has
+     * been published or no operation has that tag
+     */
+    public SerializedSpec getTagShard(String swaggerName, String type, String tag) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : getTagShard(swaggerName, entry, type, tag);
+    }
+
+    private SerializedSpec getTagShard(String swaggerName, SpecEntry entry, String type, String tag) {
+        SerializedSpec cached = entry.variants.get(getTagShardVariant(type, tag));
+        if (cached != null) {
+            getMetrics(swaggerName).getCacheHits().mark();
+            return cached;
+        }
+        Swagger shard = entry.shards.get().get(tag);
+        if (shard == null) return null;
+        return getVariant(swaggerName, entry, getTagShardVariant(type, tag), type, () -> shard);
+    }
+
+    public SerializedSpec peekTagIndex(String swaggerName, String type) {
+        return peek(swaggerName, getTagIndexVariant(type));
+    }
+
+    public SerializedSpec peekTagShard(String swaggerName, String type, String tag) {
+        return peek(swaggerName, getTagShardVariant(type, tag));
+    }
+
+    public SerializedSpec peekTagIndex(String swaggerName, String type, String filterKey) {
+        return peek(swaggerName, getTagIndexVariant(type), filterKey);
+    }
+
+    public SerializedSpec peekTagShard(String swaggerName, String type, String tag, String filterKey) {
+        return peek(swaggerName, getTagShardVariant(type, tag), filterKey);
+    }
+
+    /**
+     * Returns the already serialized document of the given swagger name and type, or null if it has not
+     * been requested since the last scan
+     */
+    public SerializedSpec peek(String swaggerName, String type) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null ? null : entry.variants.get(type);
+    }
+
+    /**
+     * Returns the already filtered and serialized document of the given swagger name, type and filter key,
+     * or null if it is not cached
+     */
+    public SerializedSpec peek(String swaggerName, String type, String filterKey) {
+        SpecEntry entry = specs.get(swaggerName);
+        return entry == null || entry.filtered == null ? null : entry.filtered.getIfPresent(type + "|" + filterKey);
+    }
+
+    /**
+     * Returns a writer that streams a swagger that cannot be shared between requests, i.e. one that has been
+     * filtered, straight into the response through a Jackson generator, so that the document is never held
+     * in memory as a whole
+     */
+    public StreamingOutput stream(String swaggerName, String type, Object document) {
+        ObjectWriter writer = getWriter(type).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return output -> {
+            CountingOutputStream counting = new CountingOutputStream(output);
+            writer.writeValue(counting, document);
+            getMetrics(swaggerName).getResponseBytes(type).update(counting.getCount());
+        };
+    }
+
+    /**
+     * Returns the Last-Modified date of the documents of the given swagger name
+     */
+    public Date getLastModified(String swaggerName) {
+        SpecEntry entry = specs.get(swaggerName);
+        return new Date(entry == null ? now() : entry.lastModified);
+    }
+
+    /**
+     * Drops every serialized document of the given swagger name
+     */
+    public void invalidate(String swaggerName) {
+        specs.remove(swaggerName);
+    }
+
+    public void setPrettyPrint(boolean prettyPrint) {
+        if (this.prettyPrint != prettyPrint) {
+            this.prettyPrint = prettyPrint;
+            specs.values().forEach(SpecEntry::clear);
+        }
+    }
+
+    /**
+     * Returns the Cache-Control header value to send with the documents of the given swagger name, or
+     * null if none has been configured
+     */
+    public String getCacheControl(String swaggerName) {
+        SwaggerBundleConfiguration configuration = configurations.get(swaggerName);
+        if (configuration == null || StringUtils.isBlank(configuration.getCacheControl())) return null;
+        return configuration.getCacheControl().trim();
+    }
+
+    /**
+     * Sets the encoders used to precompress the cached documents, in order of preference
+     */
+    public void setEncoders(List<SpecEncoder> encoders) {
+        this.encoders = ImmutableList.copyOf(encoders);
+    }
+
+    /**
+     * Returns the preferred encoder accepted by the given Accept-Encoding header, or null if the
+     * documents have to be sent uncompressed
+     */
+    public SpecEncoder negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) return null;
+
+        Map<String, Float> qualities = new HashMap<>();
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            float quality = 1f;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0f;
+                    }
+                }
+            }
+            qualities.put(parts[0].trim().toLowerCase(Locale.ENGLISH), quality);
+        }
+
+        SpecEncoder preferred = null;
+        float preferredQuality = 0f;
+        for (SpecEncoder encoder : encoders) {
+            Float quality = qualities.getOrDefault(encoder.getName(), qualities.get("*"));
+            if (quality != null && quality > preferredQuality) {
+                preferred = encoder;
+                preferredQuality = quality;
+            }
+        }
+        return preferred;
+    }
+
+    private SerializedSpec getVariant(String swaggerName, SpecEntry entry, String variant, String type, Supplier<?> document) {
+        SerializedSpec cached = entry.variants.get(variant);
+        if (cached != null) {
+            getMetrics(swaggerName).getCacheHits().mark();
+            return cached;
+        }
+        getMetrics(swaggerName).getCacheMisses().mark();
+        return entry.variants.computeIfAbsent(variant, key ->
+                entry.serialized(swaggerName + "|" + key, serialize(swaggerName, document.get(), type)));
+    }
+
+    private static String getTagIndexVariant(String type) {
+        return "tags|" + type;
+    }
+
+    private static String getTagShardVariant(String type, String tag) {
+        return "tags/" + tag + "|" + type;
+    }
+
+    private byte[] serialize(String swaggerName, Object document, String type) {
+        try (Timer.Context ignored = getMetrics(swaggerName).getSerialize().time()) {
+            return getWriter(type).writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize swagger definition as " + type, e);
+        }
+    }
+
+    private ObjectWriter getWriter(String type) {
+        if ("yaml".equalsIgnoreCase(type)) return prettyPrint ? Yaml.pretty() : Yaml.mapper().writer();
+        return prettyPrint ? Json.pretty() : Json.mapper().writer();
+    }
+
+    // HTTP dates only have second precision
+    private static long now() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    private SpecEntry getEntry(String swaggerName, Swagger swagger) {
+        SpecEntry entry = specs.get(swaggerName);
+        if (entry != null && entry.source == swagger) return entry;
+        return specs.compute(swaggerName, (key, cached) ->
+                cached != null && cached.source == swagger ? cached : new SpecEntry(swagger, getFilteredSpecCacheSize(swaggerName)));
+    }
+
+    private int getFilteredSpecCacheSize(String swaggerName) {
+        SwaggerBundleConfiguration configuration = configurations.get(swaggerName);
+        return configuration == null ? SwaggerBundleConfiguration.DEFAULT_FILTERED_SPEC_CACHE_SIZE : configuration.getFilteredSpecCacheSize();
+    }
+
+    private Swagger rehydrate(SerializedSpec json) {
+        try {
+            return rehydrated.get(json, () -> Json.mapper().readValue(json.getBody(), Swagger.class));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Unable to read swagger definition", e.getCause());
+        }
+    }
+
+    private static class MissingDocumentException extends Exception {
+        private MissingDocumentException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static class SpecEntry {
+        private final Swagger source;
+        private final SerializedSpec compact;
+        private final long lastModified;
+        private final Supplier<Swagger> swagger;
+        private final ConcurrentMap<String, SerializedSpec> variants = new ConcurrentHashMap<>();
+        private final Cache<String, SerializedSpec> filtered;
+        private final Supplier<Map<String, Swagger>> shards;
+
+        private SpecEntry(Swagger source, int filteredSpecCacheSize) {
+            this.source = source;
+            this.compact = null;
+            this.lastModified = now();
+            this.swagger = () -> source;
+            this.filtered = newFilteredCache(filteredSpecCacheSize);
+            this.shards = Suppliers.memoize(() -> SwaggerTagShards.split(source));
+        }
+
+        /**
+         * An entry of a swagger with compact storage, which only holds onto its compact JSON. Its shards are
+         * split again whenever one that has not been serialized yet is requested
+         */
+        private SpecEntry(SerializedSpec json, long lastModified, Supplier<Swagger> rehydrate, int filteredSpecCacheSize) {
+            this.source = null;
+            this.compact = json;
+            this.lastModified = lastModified;
+            this.swagger = rehydrate;
+            this.filtered = newFilteredCache(filteredSpecCacheSize);
+            this.shards = () -> SwaggerTagShards.split(rehydrate.get());
+            variants.put("json", json);
+        }
+
+        private static Cache<String, SerializedSpec> newFilteredCache(int filteredSpecCacheSize) {
+            return filteredSpecCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(filteredSpecCacheSize).build() : null;
+        }
+
+        private SerializedSpec serialized(String variant, byte[] body) {
+            SerializedSpec spec = new SerializedSpec(variant, body, lastModified);
+            return compact == null ? spec : spec.compact();
+        }
+
+        private void clear() {
+            variants.clear();
+            if (filtered != null) filtered.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.util.Json;
+
+import javax.ws.rs.core.EntityTag;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The last JSON documents published for a swagger, identified by their entity tag, from which RFC 6902 JSON Patches
+ * up to the latest document are built for clients that already hold one of the previous ones.
+ * <p/>
+ * Snapshots are only kept compressed, and the patch from each of them is built once per published document.
+ */
+class SwaggerSpecHistory {
+
+    private final int size;
+    private final Deque<SerializedSpec> snapshots = new ArrayDeque<>();
+    private volatile ConcurrentMap<String, SerializedSpec> patches = new ConcurrentHashMap<>();
+
+    SwaggerSpecHistory(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Records the JSON document of a newly published swagger, forgetting the oldest one once the history is full
+     */
+    synchronized void record(SerializedSpec json) {
+        SerializedSpec latest = snapshots.peekFirst();
+        if (latest != null && latest.getEntityTag().equals(json.getEntityTag())) return;
+        snapshots.addFirst(json.compact());
+        while (snapshots.size() > size) snapshots.removeLast();
+        patches = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the JSON Patch from the document of the given entity tag to the latest one, or null if that document is
+     * no longer in the history. The patch has an entity tag of its own, made of the one of the latest document followed
+     * by {@code -patch-} and the version it applies to, so that it is never mistaken for the whole document. Like the
+     * content coding suffix, the part after the version is ignored when the tag is sent back as {@code since}, which
+     * identifies the latest document the client holds once it has applied the patch.
+     */
+    SerializedSpec getPatch(String since) {
+        String version = normalize(since);
+        SerializedSpec from = null;
+        SerializedSpec latest;
+        ConcurrentMap<String, SerializedSpec> latestPatches;
+        synchronized (this) {
+            latest = snapshots.peekFirst();
+            latestPatches = patches;
+            for (SerializedSpec snapshot : snapshots) {
+                if (snapshot.getEntityTag().getValue().equals(version)) from = snapshot;
+            }
+        }
+        if (from == null) return null;
+        SerializedSpec source = from;
+        return latestPatches.computeIfAbsent(version, key -> new SerializedSpec(
+                new EntityTag(latest.getEntityTag().getValue() + "-patch-" + version),
+                toJson(diff(readTree(source), readTree(latest))), latest.getLastModified().getTime()));
+    }
+
+    /**
+     * Strips the weak prefix, the quotes and the patch or content coding suffix a client may send along with an entity
+     * tag
+     */
+    private static String normalize(String entityTag) {
+        String version = entityTag.trim();
+        if (version.startsWith("W/")) version = version.substring(2);
+        if (version.length() > 1 && version.startsWith("\"") && version.endsWith("\"")) {
+            version = version.substring(1, version.length() - 1);
+        }
+        int coding = version.indexOf('-');
+        return coding < 0 ? version : version.substring(0, coding);
+    }
+
+    /**
+     * Returns the operations turning the given document into the other one. Members of objects are added, removed or
+     * compared one by one, and so are the elements of arrays once their common head and tail have been skipped.
+     */
+    static ArrayNode diff(JsonNode source, JsonNode target) {
+        ArrayNode operations = JsonNodeFactory.instance.arrayNode();
+        diff(operations, "", source, target);
+        return operations;
+    }
+
+    private static void diff(ArrayNode operations, String path, JsonNode source, JsonNode target) {
+        if (source.equals(target)) return;
+        if (source.isObject() && target.isObject()) {
+            Iterator<String> names = source.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                if (!target.has(name)) operations.add(operation("remove", path + "/" + escape(name), null));
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String fieldPath = path + "/" + escape(field.getKey());
+                JsonNode previous = source.get(field.getKey());
+                if (previous == null) {
+                    operations.add(operation("add", fieldPath, field.getValue()));
+                } else {
+                    diff(operations, fieldPath, previous, field.getValue());
+                }
+            }
+        } else if (source.isArray() && target.isArray()) {
+            int head = 0;
+            while (head < source.size() && head < target.size() && source.get(head).equals(target.get(head))) head++;
+            int tail = 0;
+            while (tail < source.size() - head && tail < target.size() - head
+                    && source.get(source.size() - 1 - tail).equals(target.get(target.size() - 1 - tail))) tail++;
+            int removed = source.size() - head - tail;
+            int added = target.size() - head - tail;
+            int changed = Math.min(removed, added);
+            for (int i = 0; i < changed; i++) {
+                diff(operations, path + "/" + (head + i), source.get(head + i), target.get(head + i));
+            }
+            for (int i = changed; i < added; i++) {
+                operations.add(operation("add", path + "/" + (head + i), target.get(head + i)));
+            }
+            // Every removal shifts the following elements back to the same index
+            for (int i = changed; i < removed; i++) {
+                operations.add(operation("remove", path + "/" + (head + changed), null));
+            }
+        } else {
+            operations.add(operation("replace", path, target));
+        }
+    }
+
+    private static ObjectNode operation(String op, String path, JsonNode value) {
+        ObjectNode operation = JsonNodeFactory.instance.objectNode();
+        operation.put("op", op);
+        operation.put("path", path);
+        if (value != null) operation.set("value", value);
+        return operation;
+    }
+
+    // RFC 6901 escaping of a reference token of a JSON Pointer
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static JsonNode readTree(SerializedSpec json) {
+        try {
+            return Json.mapper().readTree(json.getBody());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read swagger definition", e);
+        }
+    }
+
+    private static byte[] toJson(JsonNode node) {
+        try {
+            return Json.mapper().writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize JSON Patch", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.swagger.models.Swagger;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.Resource;
+
+import javax.ws.rs.core.UriInfo;
+import java.util.List;
+
+/**
+ * The swaggers of the bundle, keyed by the paths their {@link ApiListingResource} and {@link ApiTagListingResource}
+ * are registered under. It is built once at startup, so that the swagger of a request is found with a single lookup
+ * of the resource Jersey matched, without parsing the request URI.
+ */
+public class SwaggerSpecRegistry {
+
+    private final SwaggerSpecCache specCache;
+    private final List<Spec> specs;
+    private final ImmutableMap<String, Spec> specsByPath;
+
+    SwaggerSpecRegistry(SwaggerSpecCache specCache, List<Spec> specs) {
+        ImmutableMap.Builder<String, Spec> specsByPath = ImmutableMap.builder();
+        for (Spec spec : specs) {
+            for (String path : spec.paths) specsByPath.put(path, spec);
+        }
+        this.specCache = specCache;
+        this.specs = ImmutableList.copyOf(specs);
+        this.specsByPath = specsByPath.build();
+    }
+
+    /**
+     * Returns the swagger served by the resource matched for the given request, or null if that resource was not
+     * registered by the bundle
+     */
+    public Spec get(UriInfo uriInfo) {
+        if (!(uriInfo instanceof ExtendedUriInfo)) return null;
+        Resource resource = ((ExtendedUriInfo) uriInfo).getMatchedModelResource();
+        while (resource != null && resource.getParent() != null) resource = resource.getParent();
+        return resource == null ? null : specsByPath.get(resource.getPath());
+    }
+
+    public List<Spec> getSpecs() {
+        return specs;
+    }
+
+    public SwaggerSpecCache getSpecCache() {
+        return specCache;
+    }
+
+    /**
+     * The swagger of a {@link SwaggerBundleConfiguration}, replaced every time it is published again
+     */
+    public static class Spec {
+        private final String name;
+        private final SwaggerBundleConfiguration configuration;
+        private final SwaggerMetrics metrics;
+        private final List<String> paths;
+        private volatile Swagger swagger;
+
+        Spec(String name, SwaggerBundleConfiguration configuration, SwaggerMetrics metrics, String... paths) {
+            this.name = name;
+            this.configuration = configuration;
+            this.metrics = metrics;
+            this.paths = ImmutableList.copyOf(paths);
+        }
+
+        /**
+         * Returns the swagger name, see {@link ConfigurationHelper#getSwaggerName()}
+         */
+        public String getName() {
+            return name;
+        }
+
+        public SwaggerBundleConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        public SwaggerMetrics getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * Returns the latest published swagger, or null while it is being built. Configurations with compact
+         * storage never hold onto it, see {@link SwaggerSpecCache#getSwagger(String)}. Its fragments are shared with
+         * other swaggers, so it must be copied before being modified
+         */
+        public Swagger getSwagger() {
+            return swagger;
+        }
+
+        void setSwagger(Swagger swagger) {
+            this.swagger = swagger;
+        }
+    }
+}
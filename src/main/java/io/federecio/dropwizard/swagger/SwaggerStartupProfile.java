@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long building the swagger of each {@link SwaggerBundleConfiguration} took at startup, split per phase.
+ * It is logged once each swagger is built, and printed by the {@code swagger-startup-profile} admin task.
+ * <p/>
+ * Configurations documenting the same resource package share a single scan, which is only reported for the
+ * configuration that ran it.
+ */
+public class SwaggerStartupProfile {
+
+    public enum Phase {
+        /**
+         * Classpath scan of the resource package
+         */
+        SCAN("scan"),
+        /**
+         * {@link io.swagger.jaxrs.Reader} pass over the resource classes, models included
+         */
+        READ("read"),
+        /**
+         * Part of the Reader pass spent resolving models
+         */
+        MODELS("models"),
+        /**
+         * Interning of the fragments of the scanned or loaded swagger, see {@link SwaggerInterner}
+         */
+        INTERN("intern"),
+        /**
+         * Api listing filters applied to the scanned package
+         */
+        FILTER("filter"),
+        /**
+         * Loading of the swagger written by the {@link GenerateSwaggerCommand}
+         */
+        LOAD("load"),
+        /**
+         * Registration of the assets, the Swagger UI page and the listing resources
+         */
+        REGISTRATION("registration");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final Map<String, ConfigurationProfile> profiles = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    ConfigurationProfile get(String swaggerName) {
+        return profiles.computeIfAbsent(swaggerName, ConfigurationProfile::new);
+    }
+
+    public Collection<ConfigurationProfile> getProfiles() {
+        synchronized (profiles) {
+            return new ArrayList<>(profiles.values());
+        }
+    }
+
+    /**
+     * Returns the profile of every configuration, with the given number of slowest resource classes of each scan
+     */
+    public String getSummary(int slowestClasses) {
+        StringBuilder summary = new StringBuilder();
+        for (ConfigurationProfile profile : getProfiles()) {
+            summary.append(profile).append('\n');
+            for (Map.Entry<String, Long> read : profile.getSlowestClasses(slowestClasses).entrySet()) {
+                summary.append(String.format(Locale.ROOT, "    %8.1f ms  %s%n", millis(read.getValue()), read.getKey()));
+            }
+        }
+        return summary.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static class ConfigurationProfile {
+        private final String swaggerName;
+        private final Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+        private Map<String, Long> classes = Collections.emptyMap();
+        private String sharedScan;
+
+        private ConfigurationProfile(String swaggerName) {
+            this.swaggerName = swaggerName;
+        }
+
+        synchronized void record(Phase phase, long nanos) {
+            phases.put(phase, nanos);
+        }
+
+        /**
+         * Records the phases of the given scan, or that it was shared if it was run for another configuration
+         */
+        synchronized void recordScan(SwaggerScanCache.ScanTimings timings) {
+            if (timings == null) return;
+            if (!swaggerName.equals(timings.getSwaggerName())) {
+                sharedScan = timings.getSwaggerName();
+                return;
+            }
+            record(Phase.SCAN, timings.getScanNanos());
+            record(Phase.READ, timings.getReadNanos());
+            record(Phase.MODELS, timings.getModelNanos());
+            record(Phase.INTERN, timings.getInternNanos());
+            classes = timings.getClassReadNanos();
+        }
+
+        public String getSwaggerName() {
+            return swaggerName;
+        }
+
+        /**
+         * Returns the time spent in the given phase, in nanoseconds
+         */
+        public synchronized long getNanos(Phase phase) {
+            return phases.getOrDefault(phase, 0L);
+        }
+
+        /**
+         * Returns the total time spent building the swagger, in nanoseconds. Model resolution is part of the Reader pass
+         */
+        public synchronized long getTotalNanos() {
+            long total = 0;
+            for (Map.Entry<Phase, Long> phase : phases.entrySet()) {
+                if (phase.getKey() != Phase.MODELS) total += phase.getValue();
+            }
+            return total;
+        }
+
+        /**
+         * Returns the Reader pass time of the given number of slowest resource classes, slowest first. It is empty if
+         * the scan was shared, or if the classes had to be read together because one of them configures the Reader
+         */
+        public synchronized Map<String, Long> getSlowestClasses(int count) {
+            List<Map.Entry<String, Long>> sorted = new ArrayList<>(classes.entrySet());
+            sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            Map<String, Long> slowest = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> read : sorted.subList(0, Math.min(count, sorted.size()))) {
+                slowest.put(read.getKey(), read.getValue());
+            }
+            return slowest;
+        }
+
+        /**
+         * Returns the name of the configuration whose scan was reused, or null if this one ran its own
+         */
+        public synchronized String getSharedScan() {
+            return sharedScan;
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder profile = new StringBuilder(String.format(Locale.ROOT, "%s: %.1f ms", swaggerName, millis(getTotalNanos())));
+            String separator = " (";
+            for (Map.Entry<Phase, Long> phase : phases.entrySet()) {
+                profile.append(separator).append(String.format(Locale.ROOT, "%s %.1f ms", phase.getKey(), millis(phase.getValue())));
+                separator = ", ";
+            }
+            if (sharedScan != null) profile.append(separator).append("scan shared with ").append(sharedScan);
+            if (!separator.equals(" (")) profile.append(')');
+            return profile.toString();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+
+/**
+ * Prints the {@link SwaggerStartupProfile} of the bundle, with the slowest resource classes of each scan:
+ * <pre>
+ *     curl -X POST 'http://localhost:8081/tasks/swagger-startup-profile?classes=20'
+ * </pre>
+ */
+class SwaggerStartupProfileTask extends Task {
+
+    private static final int DEFAULT_SLOWEST_CLASSES = 10;
+
+    private final SwaggerStartupProfile startupProfile;
+
+    SwaggerStartupProfileTask(SwaggerStartupProfile startupProfile) {
+        super("swagger-startup-profile");
+        this.startupProfile = startupProfile;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+        int slowestClasses = DEFAULT_SLOWEST_CLASSES;
+        for (String classes : parameters.get("classes")) {
+            slowestClasses = Integer.parseInt(classes);
+        }
+        output.print(startupProfile.getSummary(slowestClasses));
+        output.flush();
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.google.common.net.UrlEscapers;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.RefResponse;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.Tag;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.RefParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a swagger into one self-contained swagger per tag, holding only the operations of that tag and
+ * the definitions, parameters and responses they reference, directly or through other definitions.
+ * Operations without tags end up in the {@link #UNTAGGED} shard, operations with several tags in each of them.
+ */
+class SwaggerTagShards {
+
+    static final String UNTAGGED = "default";
+
+    private SwaggerTagShards() {
+    }
+
+    /**
+     * Returns the shard of every tag of the given swagger, in the order of its declared tags first
+     */
+    static Map<String, Swagger> split(Swagger swagger) {
+        Map<String, Map<String, Path>> pathsByTag = new LinkedHashMap<>();
+        if (swagger.getTags() != null) {
+            for (Tag tag : swagger.getTags()) pathsByTag.put(tag.getName(), new LinkedHashMap<>());
+        }
+        if (swagger.getPaths() != null) {
+            for (Map.Entry<String, Path> path : swagger.getPaths().entrySet()) {
+                for (Map.Entry<HttpMethod, Operation> operation : path.getValue().getOperationMap().entrySet()) {
+                    List<String> tags = operation.getValue().getTags();
+                    for (String tag : tags == null || tags.isEmpty() ? Collections.singletonList(UNTAGGED) : tags) {
+                        pathsByTag.computeIfAbsent(tag, name -> new LinkedHashMap<>())
+                                .computeIfAbsent(path.getKey(), name -> copyWithoutOperations(path.getValue()))
+                                .set(operation.getKey().name().toLowerCase(Locale.ENGLISH), operation.getValue());
+                    }
+                }
+            }
+        }
+
+        Map<String, Swagger> shards = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Path>> tag : pathsByTag.entrySet()) {
+            if (!tag.getValue().isEmpty()) shards.put(tag.getKey(), shard(swagger, tag.getKey(), tag.getValue()));
+        }
+        return shards;
+    }
+
+    /**
+     * Returns the index document listing the given shards, with their URLs relative to the index itself
+     */
+    static Map<String, Object> index(Map<String, Swagger> shards, String type) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map.Entry<String, Swagger> shard : shards.entrySet()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", shard.getKey());
+            Tag tag = shard.getValue().getTag(shard.getKey());
+            if (tag != null && tag.getDescription() != null) entry.put("description", tag.getDescription());
+            entry.put("paths", shard.getValue().getPaths().size());
+            entry.put("url", UrlEscapers.urlPathSegmentEscaper().escape(shard.getKey()) + "/swagger." + type);
+            entries.add(entry);
+        }
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("tags", entries);
+        return index;
+    }
+
+    /**
+     * Returns the names of the definitions referenced by the paths of the given swagger, directly or through other definitions
+     */
+    static Set<String> getReferencedDefinitions(Swagger swagger) {
+        References references = new References(swagger);
+        if (swagger.getPaths() != null) references.addPaths(swagger.getPaths().values());
+        references.resolve();
+        return new LinkedHashSet<>(references.definitions.keySet());
+    }
+
+    private static Path copyWithoutOperations(Path path) {
+        Path copy = new Path();
+        copy.setParameters(path.getParameters());
+        copy.setVendorExtensions(path.getVendorExtensions());
+        return copy;
+    }
+
+    private static Swagger shard(Swagger swagger, String tagName, Map<String, Path> paths) {
+        Swagger shard = new Swagger();
+        shard.setSwagger(swagger.getSwagger());
+        shard.setInfo(swagger.getInfo());
+        shard.setHost(swagger.getHost());
+        shard.setBasePath(swagger.getBasePath());
+        shard.setSchemes(swagger.getSchemes());
+        shard.setConsumes(swagger.getConsumes());
+        shard.setProduces(swagger.getProduces());
+        shard.setSecurity(swagger.getSecurity());
+        shard.setSecurityDefinitions(swagger.getSecurityDefinitions());
+        shard.setExternalDocs(swagger.getExternalDocs());
+        shard.setVendorExtensions(swagger.getVendorExtensions());
+        Tag tag = swagger.getTag(tagName);
+        if (tag != null) shard.tag(tag);
+        shard.setPaths(paths);
+
+        References references = new References(swagger);
+        references.addPaths(paths.values());
+        references.resolve();
+        if (!references.parameters.isEmpty()) shard.setParameters(references.parameters);
+        if (!references.responses.isEmpty()) shard.setResponses(references.responses);
+        if (!references.definitions.isEmpty()) shard.setDefinitions(references.definitions);
+        return shard;
+    }
+
+    /**
+     * Collects the global parameters, responses and definitions referenced by a set of operations
+     */
+    private static class References {
+        private final Swagger swagger;
+        private final Map<String, Parameter> parameters = new LinkedHashMap<>();
+        private final Map<String, Response> responses = new LinkedHashMap<>();
+        private final Map<String, Model> definitions = new LinkedHashMap<>();
+        private final Set<String> seenModels = new LinkedHashSet<>();
+        private final Deque<Model> models = new ArrayDeque<>();
+
+        private References(Swagger swagger) {
+            this.swagger = swagger;
+        }
+
+        private void addPaths(Collection<Path> paths) {
+            for (Path path : paths) {
+                addParameters(path.getParameters());
+                for (Operation operation : path.getOperations()) {
+                    addParameters(operation.getParameters());
+                    if (operation.getResponses() != null) operation.getResponses().values().forEach(this::addResponse);
+                }
+            }
+        }
+
+        private void addParameters(Collection<Parameter> parameters) {
+            if (parameters == null) return;
+            for (Parameter parameter : parameters) {
+                if (parameter instanceof RefParameter) {
+                    String name = ((RefParameter) parameter).getSimpleRef();
+                    Parameter referenced = swagger.getParameters() == null ? null : swagger.getParameter(name);
+                    if (referenced != null && this.parameters.put(name, referenced) == null) addParameters(Collections.singletonList(referenced));
+                } else if (parameter instanceof BodyParameter) {
+                    addModel(((BodyParameter) parameter).getSchema());
+                }
+            }
+        }
+
+        private void addResponse(Response response) {
+            if (response instanceof RefResponse) {
+                String name = ((RefResponse) response).getSimpleRef();
+                Response referenced = swagger.getResponses() == null ? null : swagger.getResponses().get(name);
+                if (referenced != null && responses.put(name, referenced) == null) addResponse(referenced);
+            } else if (response != null) {
+                addModel(response.getResponseSchema());
+                if (response.getHeaders() != null) response.getHeaders().values().forEach(this::addProperty);
+            }
+        }
+
+        private void addModel(Model model) {
+            if (model == null) return;
+            if (model instanceof RefModel) {
+                addDefinition(((RefModel) model).getSimpleRef());
+            } else {
+                models.add(model);
+            }
+        }
+
+        private void addDefinition(String name) {
+            if (swagger.getDefinitions() == null || !seenModels.add(name)) return;
+            Model model = swagger.getDefinitions().get(name);
+            if (model != null) {
+                definitions.put(name, model);
+                models.add(model);
+            }
+        }
+
+        private void addProperty(Property property) {
+            if (property instanceof RefProperty) {
+                addDefinition(((RefProperty) property).getSimpleRef());
+            } else if (property instanceof ArrayProperty) {
+                addProperty(((ArrayProperty) property).getItems());
+            } else if (property instanceof MapProperty) {
+                addProperty(((MapProperty) property).getAdditionalProperties());
+            } else if (property instanceof ObjectProperty && ((ObjectProperty) property).getProperties() != null) {
+                ((ObjectProperty) property).getProperties().values().forEach(this::addProperty);
+            }
+        }
+
+        /**
+         * Follows the references of the collected models until no new definition is found
+         */
+        private void resolve() {
+            while (!models.isEmpty()) {
+                Model model = models.poll();
+                if (model instanceof ComposedModel) {
+                    ComposedModel composed = (ComposedModel) model;
+                    if (composed.getAllOf() != null) composed.getAllOf().forEach(this::addModel);
+                } else if (model instanceof ArrayModel) {
+                    addProperty(((ArrayModel) model).getItems());
+                } else if (model instanceof ModelImpl) {
+                    addProperty(((ModelImpl) model).getAdditionalProperties());
+                } else if (model instanceof RefModel) {
+                    addDefinition(((RefModel) model).getSimpleRef());
+                }
+                if (model.getProperties() != null) model.getProperties().values().forEach(this::addProperty);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+/**
+ * Answers 401 to the requests of the swaggers that require a token (see {@link SwaggerBundleConfiguration#isRequireToken()})
+ * and do not carry a valid one as an {@code Authorization: Bearer} header. Tokens are never accepted in the URL, which
+ * would leak them to access logs, browser history and Referer headers
+ */
+@Priority(Priorities.AUTHENTICATION)
+class SwaggerTokenFilter implements ContainerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final VerifiedTokenCache tokens;
+    private final SwaggerSpecRegistry registry;
+
+    SwaggerTokenFilter(VerifiedTokenCache tokens, SwaggerSpecRegistry registry) {
+        this.tokens = tokens;
+        this.registry = registry;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        SwaggerSpecRegistry.Spec spec = registry.get(request.getUriInfo());
+        if (spec == null || !spec.getConfiguration().isRequireToken()) return;
+        if (!tokens.isValid(getToken(request))) {
+            request.abortWith(Response.status(Response.Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .build());
+        }
+    }
+
+    private static String getToken(ContainerRequestContext request) {
+        String authorization = request.getHeaderString(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return authorization.substring(BEARER.length()).trim();
+        }
+        return null;
+    }
+}
@@ -32,12 +32,20 @@ public class SwaggerView extends View {
     private final String loginUrl;
 
     SwaggerView(String baseUrl, String urlPattern, String loginUrl) {
+        this(baseUrl, urlPattern, loginUrl, null);
+    }
+
+    /**
+     * The assets are referenced under the given fingerprinted path (see {@link FingerprintedAssetsBundle}) if there is one
+     */
+    SwaggerView(String baseUrl, String urlPattern, String loginUrl, String assetsFingerprint) {
         super("index.ftl", Charsets.UTF_8);
 
+        String assetsPath = assetsFingerprint == null ? Constants.SWAGGER_URI_PATH : Constants.SWAGGER_URI_PATH + "/" + assetsFingerprint;
         if (baseUrl.equals("/")) {
-            this.swaggerAssetsPath = Constants.SWAGGER_URI_PATH;
+            this.swaggerAssetsPath = assetsPath;
         } else {
-            this.swaggerAssetsPath = baseUrl + Constants.SWAGGER_URI_PATH;
+            this.swaggerAssetsPath = baseUrl + assetsPath;
         }
 
         if (urlPattern.equals("/")) {
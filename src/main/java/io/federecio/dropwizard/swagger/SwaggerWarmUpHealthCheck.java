@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reports unhealthy until every swagger that is warmed up in the background (see
+ * {@link SwaggerBundleConfiguration#isWarmUp()}) has been scanned and serialized, so that load balancers
+ * only send traffic to nodes that can answer swagger requests right away
+ */
+public class SwaggerWarmUpHealthCheck extends HealthCheck {
+
+    private final Map<String, Future<?>> warmUps = new ConcurrentHashMap<>();
+
+    void register(String swaggerName, Future<?> warmUp) {
+        warmUps.put(swaggerName, warmUp);
+    }
+
+    @Override
+    protected Result check() throws Exception {
+        List<String> pending = new ArrayList<>();
+        for (Map.Entry<String, Future<?>> warmUp : warmUps.entrySet()) {
+            if (!warmUp.getValue().isDone()) {
+                pending.add(warmUp.getKey());
+                continue;
+            }
+            try {
+                warmUp.getValue().get();
+            } catch (ExecutionException e) {
+                return Result.unhealthy("Unable to warm up " + warmUp.getKey() + ": " + e.getCause());
+            }
+        }
+        return pending.isEmpty() ? Result.healthy() : Result.unhealthy("Still warming up " + pending);
+    }
+}
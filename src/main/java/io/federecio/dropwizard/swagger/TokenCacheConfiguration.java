@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * Settings of the cache of tokens checked by the {@link TokenVerifier} of the bundle, to be returned by
+ * {@link SwaggerBundle#getTokenCacheConfiguration} from the application configuration
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TokenCacheConfiguration {
+
+    /**
+     * Maximum number of tokens whose verification is kept in memory
+     */
+    @JsonProperty
+    private long maximumSize = 10000;
+
+    /**
+     * How long the verification of a token is kept in memory, at most, before the {@link TokenVerifier} is asked
+     * again. Tokens that expire earlier are rejected from their expiry on
+     */
+    @JsonProperty
+    private Duration expireAfter = Duration.minutes(5);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfter() {
+        return expireAfter;
+    }
+
+    public void setExpireAfter(Duration expireAfter) {
+        this.expireAfter = expireAfter;
+    }
+}
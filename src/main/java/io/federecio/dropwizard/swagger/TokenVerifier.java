@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import java.time.Instant;
+
+/**
+ * Checks the tokens handed out by the {@link Authenticator} before serving the swagger of the configurations that
+ * require one (see {@link SwaggerBundleConfiguration#isRequireToken()}). The bundle keeps the outcome of every token
+ * in memory, so a token is verified once and not on every request.
+ */
+public interface TokenVerifier {
+
+    /**
+     * Returns when the given token expires, or null if it is not a valid token. Tokens that never expire can be
+     * answered with {@link Instant#MAX}, they are verified again once they leave the cache
+     * (see {@link TokenCacheConfiguration#getExpireAfter()})
+     */
+    Instant verify(String token);
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Remembers which tokens the {@link TokenVerifier} accepted, and until when, so that only the first request with a
+ * token calls it. Rejected tokens are remembered too: a token that was not valid never becomes valid later.
+ * <p/>
+ * Tokens are only kept as a keyed hash, with a random key generated at startup. Lookups are reported as
+ * {@code swagger.token.cache.hits} and {@code swagger.token.cache.misses}.
+ */
+class VerifiedTokenCache {
+
+    // Expiry of the tokens the verifier rejected
+    private static final Instant INVALID = Instant.MIN;
+
+    private final TokenVerifier verifier;
+    private final HashFunction keyHash;
+    private final Cache<HashCode, Instant> expiries;
+    private final Meter hits;
+    private final Meter misses;
+
+    VerifiedTokenCache(TokenVerifier verifier, TokenCacheConfiguration configuration, MetricRegistry metrics) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.verifier = verifier;
+        this.keyHash = Hashing.hmacSha256(key);
+        this.expiries = CacheBuilder.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getExpireAfter().getQuantity(), configuration.getExpireAfter().getUnit())
+                .build();
+        this.hits = metrics.meter(MetricRegistry.name("swagger", "token", "cache", "hits"));
+        this.misses = metrics.meter(MetricRegistry.name("swagger", "token", "cache", "misses"));
+    }
+
+    /**
+     * Returns whether the given token was accepted by the verifier and has not expired since
+     */
+    boolean isValid(String token) {
+        if (token == null || token.isEmpty()) return false;
+        HashCode key = keyHash.hashString(token, StandardCharsets.UTF_8);
+        Instant expiry = expiries.getIfPresent(key);
+        if (expiry != null) {
+            hits.mark();
+        } else {
+            misses.mark();
+            expiry = verify(key, token);
+        }
+        return Instant.now().isBefore(expiry);
+    }
+
+    // Concurrent requests with the same new token wait for a single verification
+    private Instant verify(HashCode key, String token) {
+        try {
+            return expiries.get(key, () -> {
+                Instant verified = verifier.verify(token);
+                return verified == null ? INVALID : verified;
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Unable to verify token", e.getCause());
+        }
+    }
+}
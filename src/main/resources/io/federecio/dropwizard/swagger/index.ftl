@@ -47,6 +47,17 @@
       window.swaggerUi = new SwaggerUi({
         url: "${contextPath}/swagger.json",
         dom_id: "swagger-ui-container",
+        // The token of the login, if any, is sent as a header, including to fetch swagger.json when it requires one
+        requestInterceptor: function() {
+          var token = $('#input_apiKey').val();
+          if(token && token.trim() !== "") {
+            this.headers = this.headers || {};
+            if(!this.headers.Authorization) {
+              this.headers.Authorization = "Bearer " + token.trim();
+            }
+          }
+          return this;
+        },
         supportedSubmitMethods: ['get', 'post', 'put', 'delete', 'patch'],
         onComplete: function(swaggerApi, swaggerUi){
           if(typeof initOAuth == "function") {
@@ -81,6 +92,7 @@
         validatorUrl: null
       });
 
+      const TOKEN_KEY = "swagger-token";
       const apiKeyInput = $('#input_apiKey');
       const getToken = $('#get-token');
       const loginForm = $('#login');
@@ -116,8 +128,9 @@
               },
               data: {},
               success: function(data){
-                  const url = window.swaggerUi.buildUrl(location.href, '${contextPath}/swagger');
-                  location.href = url + '?token=' + data;
+                  // Kept out of the URL, where it would end up in access logs, browser history and Referer headers
+                  sessionStorage.setItem(TOKEN_KEY, data);
+                  location.href = window.swaggerUi.buildUrl(location.href, '${contextPath}/swagger');
               },
               error: function () {
                   errorMessage.show();
@@ -136,16 +149,9 @@
 
       apiKeyInput.change(addApiKeyAuthorization);
 
-      // https://stackoverflow.com/questions/7731778/get-query-string-parameters-with-jquery
-      function getQueryParameter(key) {
-        key = key.replace(/[*+?^$.\[\]{}()|\\\/]/g, "\\$&"); // escape RegEx meta chars
-        var match = location.search.match(new RegExp("[?&]"+key+"=([^&]+)(&|$)"));
-        return match && decodeURIComponent(match[1].replace(/\+/g, " "));
-      }
-
-      var tokenParam = getQueryParameter("token");
-      if(tokenParam) {
-          apiKeyInput.val(tokenParam);
+      var token = sessionStorage.getItem(TOKEN_KEY);
+      if(token) {
+          apiKeyInput.val(token);
       }
 
       window.swaggerUi.load();
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import javax.ws.rs.NotAuthorizedException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings("deprecation")
+public class AuthenticatorTest {
+
+    private final AtomicInteger logins = new AtomicInteger();
+    private final Authenticator authenticator = new Authenticator() {
+        @Override
+        public String login(String username, String password) {
+            logins.incrementAndGet();
+            return "pw".equals(password) ? "token-" + username : null;
+        }
+    };
+
+    @Test
+    public void synchronousTokenIsTheLoginToken() {
+        assertEquals("token-user", authenticator.getToken("user", "pw"));
+        assertEquals("token-user", authenticator.getToken("user", "pw"));
+        assertEquals(2, logins.get());
+    }
+
+    @Test(expected = NotAuthorizedException.class)
+    public void synchronousTokenOfInvalidCredentialsIsNotAuthorized() {
+        authenticator.getToken("user", "wrong");
+    }
+
+    @Test
+    public void synchronousTokenIsCachedWithTheLogins() {
+        authenticator.cacheLogins(new LoginCacheConfiguration(), new MetricRegistry());
+        assertEquals("token-user", authenticator.getToken("user", "pw"));
+        assertEquals("token-user", authenticator.getToken("user", "pw"));
+        assertEquals(1, logins.get());
+    }
+}
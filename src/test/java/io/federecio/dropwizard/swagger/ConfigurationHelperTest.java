@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.Configuration;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConfigurationHelperTest {
+
+    @Test
+    public void metricsOfTheDefaultConfigurationAreUnderSpecDefault() {
+        assertEquals("swagger.spec.default", getMetricsName("/"));
+    }
+
+    @Test
+    public void metricsOfAUriPrefixDoNotClashWithTheBundleMetrics() {
+        assertEquals("swagger.spec.login", getMetricsName("/login"));
+        assertEquals("swagger.spec.interning", getMetricsName("/interning"));
+        assertEquals("swagger.spec.admin.v2", getMetricsName("/admin/v2"));
+    }
+
+    private static String getMetricsName(String uriPrefix) {
+        SwaggerBundleConfiguration swaggerConfig = new SwaggerBundleConfiguration();
+        swaggerConfig.setUriPrefix(uriPrefix);
+        return new ConfigurationHelper(new Configuration(), swaggerConfig).getMetricsName();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.Configuration;
+import io.swagger.util.Json;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads the resources of the {@code parallel} package, whose operation ids collide within and across classes, one
+ * after another and in parallel
+ */
+public class SwaggerParallelReaderTest {
+
+    private static final String PACKAGE = "io.federecio.dropwizard.swagger.parallel";
+
+    @Test
+    public void parallelReadIsTheSameAsReadingOneClassAfterAnother() throws Exception {
+        SwaggerScanCache.ScannedPackage expected = scan(1);
+        assertEquals(9, expected.getTimings().getClassReadNanos().size());
+        String json = Json.pretty(expected.getSwagger());
+        // Ids were suffixed across classes, ignoring case, and the operation of the shared path was replaced
+        assertTrue(json, json.contains("\"list_1_1\""));
+        assertTrue(json, json.contains("\"LIST_3\""));
+        assertTrue(json, json.contains("\"list_4\""));
+        assertTrue(json, !json.contains("\"list_3\"") && json.contains("\"query\""));
+
+        for (int parallelism : new int[]{2, 3, 4, 8}) {
+            SwaggerScanCache.ScannedPackage actual = scan(parallelism);
+            assertEquals("parallelism " + parallelism, json, Json.pretty(actual.getSwagger()));
+            assertEquals("parallelism " + parallelism, expected.getTimings().getClassReadNanos().keySet(),
+                    actual.getTimings().getClassReadNanos().keySet());
+            assertAllowedPaths(expected, actual, Collections.emptySet());
+            assertAllowedPaths(expected, actual, Collections.singleton("public"));
+        }
+    }
+
+    private static void assertAllowedPaths(SwaggerScanCache.ScannedPackage expected, SwaggerScanCache.ScannedPackage actual,
+                                           Set<String> resourceFilters) throws Exception {
+        assertEquals(resourceFilters.toString(),
+                Json.mapper().writeValueAsString(expected.getAllowedPaths(resourceFilters)),
+                Json.mapper().writeValueAsString(actual.getAllowedPaths(resourceFilters)));
+    }
+
+    private static SwaggerScanCache.ScannedPackage scan(int parallelism) {
+        SwaggerBundleConfiguration configuration = new SwaggerBundleConfiguration();
+        configuration.setResourcePackage(PACKAGE);
+        SwaggerScanCache cache = new SwaggerScanCache();
+        cache.setParallelism(parallelism);
+        return cache.get(PACKAGE, new ConfigurationHelper(new Configuration(), configuration));
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.dropwizard.Configuration;
+import io.federecio.dropwizard.swagger.update.StoreResource;
+import io.swagger.util.Json;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SwaggerScanCacheTest {
+
+    private static final String PACKAGE = "io.federecio.dropwizard.swagger.update";
+
+    private final ConfigurationHelper configurationHelper = configurationHelper();
+
+    @Test
+    public void addedResourceIsReadLikeInAFullScan() {
+        String full = Json.pretty(new SwaggerScanCache().get(PACKAGE, configurationHelper).getSwagger());
+        assertTrue(full, full.contains("\"getPet_1\""));
+
+        SwaggerScanCache cache = new SwaggerScanCache();
+        cache.get(PACKAGE, configurationHelper);
+        String withoutStores = Json.pretty(cache.update(PACKAGE, Collections.emptySet(),
+                Collections.singleton(StoreResource.class), configurationHelper).getSwagger());
+        assertFalse(withoutStores, withoutStores.contains("/stores"));
+
+        String updated = Json.pretty(cache.update(PACKAGE, Collections.singleton(StoreResource.class),
+                Collections.emptySet(), configurationHelper).getSwagger());
+        assertEquals(full, updated);
+    }
+
+    @Test
+    public void resourceReadAgainKeepsItsOperationIds() {
+        SwaggerScanCache cache = new SwaggerScanCache();
+        String full = Json.pretty(cache.get(PACKAGE, configurationHelper).getSwagger());
+        String updated = Json.pretty(cache.update(PACKAGE, Collections.singleton(StoreResource.class),
+                Collections.emptySet(), configurationHelper).getSwagger());
+        assertEquals(full, updated);
+    }
+
+    private static ConfigurationHelper configurationHelper() {
+        SwaggerBundleConfiguration configuration = new SwaggerBundleConfiguration();
+        configuration.setResourcePackage(PACKAGE);
+        return new ConfigurationHelper(new Configuration(), configuration);
+    }
+}
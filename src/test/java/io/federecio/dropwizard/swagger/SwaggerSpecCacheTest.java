@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import io.swagger.models.Info;
+import io.swagger.models.Swagger;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SwaggerSpecCacheTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final SwaggerSpecCache cache = new SwaggerSpecCache();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void warmUpThatFailsToScanIsReportedAsFailed() throws Exception {
+        Future<?> warmUp = cache.warmUpInBackground("swagger", executor, () -> {
+            throw new IllegalStateException("scan failed");
+        });
+        try {
+            warmUp.get();
+            fail("the warm-up should have failed");
+        } catch (ExecutionException e) {
+            assertEquals("scan failed", e.getCause().getMessage());
+        }
+        assertFalse(cache.isWarmingUp("swagger"));
+        assertTrue(cache.isWarmUpFailed("swagger"));
+    }
+
+    @Test
+    public void publishingClearsFailedWarmUp() throws Exception {
+        Future<?> warmUp = cache.warmUpInBackground("swagger", executor, () -> {
+            throw new IllegalStateException("scan failed");
+        });
+        try {
+            warmUp.get();
+        } catch (ExecutionException expected) {
+            // reported by the health check
+        }
+        cache.publish("swagger", new Swagger().info(new Info().title("test")));
+        assertFalse(cache.isWarmingUp("swagger"));
+        assertFalse(cache.isWarmUpFailed("swagger"));
+        assertNotNull(cache.get("swagger", "json"));
+    }
+
+    @Test
+    public void failureAfterPublishingKeepsTheSwagger() throws Exception {
+        Future<?> warmUp = cache.warmUpInBackground("swagger", executor, () -> {
+            cache.publish("swagger", new Swagger().info(new Info().title("test")));
+            throw new IllegalStateException("precompression failed");
+        });
+        try {
+            warmUp.get();
+        } catch (ExecutionException expected) {
+            // reported by the health check
+        }
+        assertFalse(cache.isWarmingUp("swagger"));
+        assertFalse(cache.isWarmUpFailed("swagger"));
+    }
+
+    @Test
+    public void successfulWarmUpIsNeitherPendingNorFailed() throws Exception {
+        cache.warmUpInBackground("swagger", executor,
+                () -> cache.publish("swagger", new Swagger().info(new Info().title("test")))).get();
+        assertFalse(cache.isWarmingUp("swagger"));
+        assertFalse(cache.isWarmUpFailed("swagger"));
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.util.Json;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SwaggerSpecHistoryTest {
+
+    private static final String PET_STORE = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Pets\",\"version\":\"1\"},"
+            + "\"tags\":[{\"name\":\"pets\"},{\"name\":\"stores\"},{\"name\":\"users\"}],"
+            + "\"paths\":{\"/pets\":{\"get\":{\"operationId\":\"list\",\"parameters\":[{\"name\":\"limit\",\"in\":\"query\"}]}},"
+            + "\"/pets/{id}\":{\"get\":{\"operationId\":\"get\"}}},"
+            + "\"definitions\":{\"Pet\":{\"required\":[\"id\",\"name\"],\"properties\":{\"id\":{\"type\":\"integer\"}}}}}";
+
+    @Test
+    public void patchTurnsTheOldDocumentIntoTheNewOne() throws IOException {
+        String updated = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Pet store\",\"version\":\"2\",\"description\":\"d\"},"
+                + "\"tags\":[{\"name\":\"pets\"},{\"name\":\"orders\"},{\"name\":\"stores\"}],"
+                + "\"paths\":{\"/pets\":{\"get\":{\"operationId\":\"list\",\"parameters\":[{\"name\":\"offset\",\"in\":\"query\"},"
+                + "{\"name\":\"limit\",\"in\":\"query\",\"required\":true}]},\"post\":{\"operationId\":\"create\"}},"
+                + "\"/stores/{id}/pets\":{\"get\":{\"operationId\":\"storePets\"}}},"
+                + "\"definitions\":{\"Pet\":{\"required\":[\"name\"],\"properties\":{\"id\":{\"type\":\"string\"}}},"
+                + "\"Order\":{\"properties\":{}}}}";
+        assertRoundTrip(PET_STORE, updated);
+    }
+
+    @Test
+    public void patchEscapesMemberNames() throws IOException {
+        assertRoundTrip("{\"paths\":{\"/a~b/{c}\":{\"get\":{}},\"~1\":1,\"/\":[1]}}",
+                "{\"paths\":{\"/a~b/{c}\":{\"put\":{}},\"~0\":1,\"/\":[1,2],\"a/~b\":{}}}");
+    }
+
+    @Test
+    public void patchInsertsRemovesAndChangesArrayElements() throws IOException {
+        assertRoundTrip("[1,2,3,4,5]", "[1,2,9,3,4,5]");
+        assertRoundTrip("[1,2,3,4,5]", "[1,5]");
+        assertRoundTrip("[1,2,3,4,5]", "[1,{\"a\":3},[4],5]");
+        assertRoundTrip("[1,2,3]", "[]");
+        assertRoundTrip("[]", "[1,2,3]");
+        assertRoundTrip("[1,1,1]", "[1,1]");
+        assertRoundTrip("[[1,2],{\"a\":[1]}]", "[[2],{\"a\":[1,[]]}]");
+    }
+
+    @Test
+    public void patchReplacesValuesOfAnotherType() throws IOException {
+        assertRoundTrip("{\"a\":[1],\"b\":{\"c\":1},\"d\":null}", "{\"a\":{\"0\":1},\"b\":\"c\",\"d\":false}");
+        assertRoundTrip("{\"a\":1}", "[1]");
+    }
+
+    @Test
+    public void patchTurnsRandomDocumentsIntoEachOther() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            JsonNode source = randomNode(random, 4);
+            JsonNode target = mutate(random, source.deepCopy(), 4);
+            assertRoundTrip(Json.mapper().writeValueAsString(source), Json.mapper().writeValueAsString(target));
+        }
+    }
+
+    @Test
+    public void patchHasAnEntityTagOfItsOwn() {
+        SwaggerSpecHistory history = new SwaggerSpecHistory(2);
+        SerializedSpec first = spec("{\"a\":1}");
+        SerializedSpec second = spec("{\"a\":2}");
+        history.record(first);
+        history.record(second);
+
+        SerializedSpec patch = history.getPatch(first.getEntityTag().getValue());
+        assertNotEquals(second.getEntityTag(), patch.getEntityTag());
+        assertTrue(patch.getEntityTag().getValue().startsWith(second.getEntityTag().getValue() + "-patch-"));
+        assertNotEquals(second.encodedWith(new GzipSpecEncoder()).getEntityTag(),
+                patch.encodedWith(new GzipSpecEncoder()).getEntityTag());
+
+        // Sent back, the tag of the patch identifies the document the client holds once it has applied it
+        assertEquals("[]", new String(history.getPatch(patch.getEntityTag().toString()).getBody()));
+    }
+
+    @Test
+    public void sinceIsNormalized() {
+        SwaggerSpecHistory history = new SwaggerSpecHistory(2);
+        SerializedSpec first = spec("{\"a\":1}");
+        history.record(first);
+        history.record(spec("{\"a\":2}"));
+        String version = first.getEntityTag().getValue();
+
+        for (String since : new String[]{version, "\"" + version + "\"", "W/\"" + version + "\"",
+                "\"" + version + "-gzip\"", " W/\"" + version + "-gzip\" "}) {
+            SerializedSpec patch = history.getPatch(since);
+            assertNotNull(since, patch);
+            assertEquals(since, "[{\"op\":\"replace\",\"path\":\"/a\",\"value\":2}]", new String(patch.getBody()));
+        }
+        assertNull(history.getPatch("\"unknown\""));
+    }
+
+    @Test
+    public void forgottenVersionsAreNotPatched() {
+        SwaggerSpecHistory history = new SwaggerSpecHistory(2);
+        SerializedSpec first = spec("{\"a\":1}");
+        history.record(first);
+        history.record(spec("{\"a\":2}"));
+        history.record(spec("{\"a\":3}"));
+        assertNull(history.getPatch(first.getEntityTag().toString()));
+    }
+
+    private static void assertRoundTrip(String source, String target) throws IOException {
+        SwaggerSpecHistory history = new SwaggerSpecHistory(2);
+        SerializedSpec from = spec(source);
+        history.record(from);
+        history.record(spec(target));
+        JsonNode patch = Json.mapper().readTree(history.getPatch(from.getEntityTag().toString()).getBody());
+        assertEquals(source + " -> " + target + " with " + patch,
+                Json.mapper().readTree(target), apply(patch, Json.mapper().readTree(source)));
+    }
+
+    private static SerializedSpec spec(String json) {
+        return new SerializedSpec("swagger.json", json.getBytes(), 0);
+    }
+
+    /**
+     * Applies the add, remove and replace operations of an RFC 6902 JSON Patch
+     */
+    private static JsonNode apply(JsonNode patch, JsonNode document) {
+        for (JsonNode operation : patch) {
+            String op = operation.get("op").asText();
+            List<String> tokens = new ArrayList<>();
+            String path = operation.get("path").asText();
+            if (!path.isEmpty()) {
+                assertTrue(path, path.startsWith("/"));
+                for (String token : path.substring(1).split("/", -1)) tokens.add(token.replace("~1", "/").replace("~0", "~"));
+            }
+            if (tokens.isEmpty()) {
+                assertEquals("replace", op);
+                document = operation.get("value").deepCopy();
+                continue;
+            }
+            JsonNode parent = document;
+            for (String token : tokens.subList(0, tokens.size() - 1)) {
+                parent = parent.isArray() ? parent.get(Integer.parseInt(token)) : parent.get(token);
+                assertNotNull(path, parent);
+            }
+            String last = tokens.get(tokens.size() - 1);
+            if (parent.isArray()) {
+                ArrayNode array = (ArrayNode) parent;
+                int index = last.equals("-") ? array.size() : Integer.parseInt(last);
+                if (op.equals("add")) {
+                    array.insert(index, operation.get("value").deepCopy());
+                } else if (op.equals("remove")) {
+                    assertNotNull(path, array.remove(index));
+                } else {
+                    assertEquals("replace", op);
+                    assertTrue(path, index < array.size());
+                    array.set(index, operation.get("value").deepCopy());
+                }
+            } else {
+                ObjectNode object = (ObjectNode) parent;
+                if (op.equals("add")) {
+                    object.set(last, operation.get("value").deepCopy());
+                } else if (op.equals("remove")) {
+                    assertNotNull(path, object.remove(last));
+                } else {
+                    assertEquals("replace", op);
+                    assertTrue(path, object.has(last));
+                    object.set(last, operation.get("value").deepCopy());
+                }
+            }
+        }
+        return document;
+    }
+
+    private static final String[] NAMES = {"a", "b", "/c", "d~", "~1", "e/f~0"};
+
+    private static JsonNode randomNode(Random random, int depth) {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        switch (depth == 0 ? random.nextInt(3) : random.nextInt(5)) {
+            case 0:
+                return factory.numberNode(random.nextInt(3));
+            case 1:
+                return factory.textNode(NAMES[random.nextInt(NAMES.length)]);
+            case 2:
+                return factory.nullNode();
+            case 3:
+                ArrayNode array = factory.arrayNode();
+                for (int i = random.nextInt(5); i > 0; i--) array.add(randomNode(random, depth - 1));
+                return array;
+            default:
+                ObjectNode object = factory.objectNode();
+                for (int i = random.nextInt(4); i > 0; i--) object.set(NAMES[random.nextInt(NAMES.length)], randomNode(random, depth - 1));
+                return object;
+        }
+    }
+
+    private static JsonNode mutate(Random random, JsonNode node, int depth) {
+        if (random.nextInt(6) == 0) return randomNode(random, depth);
+        if (node.isArray()) {
+            ArrayNode array = (ArrayNode) node;
+            for (int i = random.nextInt(3); i > 0; i--) {
+                int change = random.nextInt(3);
+                if (change == 0) array.insert(random.nextInt(array.size() + 1), randomNode(random, depth - 1));
+                else if (change == 1 && array.size() > 0) array.remove(random.nextInt(array.size()));
+                else if (array.size() > 0) {
+                    int index = random.nextInt(array.size());
+                    array.set(index, mutate(random, array.get(index), depth - 1));
+                }
+            }
+        } else if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            for (int i = random.nextInt(3); i > 0; i--) {
+                String name = NAMES[random.nextInt(NAMES.length)];
+                int change = random.nextInt(3);
+                if (change == 0) object.remove(name);
+                else if (change == 1 || !object.has(name)) object.set(name, randomNode(random, depth - 1));
+                else object.set(name, mutate(random, object.get(name), depth - 1));
+            }
+        }
+        return node;
+    }
+}
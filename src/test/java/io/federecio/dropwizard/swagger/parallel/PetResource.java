@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger.parallel;
+
+import io.federecio.dropwizard.swagger.ApiListing;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import java.util.List;
+
+@Api("pets")
+@Path("/pets")
+@ApiListing(values = "public")
+public class PetResource {
+
+    @GET
+    public List<Pet> list() {
+        return null;
+    }
+
+    @GET
+    @Path("/{id}")
+    public Pet get(@PathParam("id") String id) {
+        return null;
+    }
+
+    @POST
+    @ApiOperation(value = "Creates a pet", tags = {"pets", "admin"})
+    public Pet create(@QueryParam("name") String name) {
+        return null;
+    }
+
+    // Takes the id the next list operation would have been given
+    @DELETE
+    @Path("/{id}")
+    @ApiOperation(value = "Removes a pet", nickname = "list_1")
+    public void remove(@PathParam("id") String id) {
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger.parallel;
+
+import io.swagger.annotations.Api;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import java.util.List;
+
+/**
+ * Shares its path with the {@link PetResource}, whose operation it replaces
+ */
+@Api("search")
+@Path("/pets")
+public class PetSearchResource {
+
+    @GET
+    public List<Pet> list(@QueryParam("query") String query) {
+        return null;
+    }
+
+    @PUT
+    public List<Pet> LIST(@QueryParam("query") String query) {
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 Federico Recio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.federecio.dropwizard.swagger.update;
+
+import io.swagger.annotations.Api;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * Registered at runtime, with a method named like the one of the {@link PetResource}
+ */
+@Api("stores")
+@Path("/stores")
+public class StoreResource {
+
+    @GET
+    @Path("/{id}")
+    public Store get(@PathParam("id") String id) {
+        return null;
+    }
+
+    @GET
+    @Path("/{id}/pet")
+    public Pet getPet(@PathParam("id") String id) {
+        return null;
+    }
+}